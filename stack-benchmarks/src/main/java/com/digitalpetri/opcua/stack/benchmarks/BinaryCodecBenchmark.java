@@ -0,0 +1,342 @@
+/*
+ * Copyright 2016 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.benchmarks;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.digitalpetri.opcua.stack.core.serialization.binary.BinaryDecoder;
+import com.digitalpetri.opcua.stack.core.serialization.binary.BinaryEncoder;
+import com.digitalpetri.opcua.stack.core.types.builtin.DataValue;
+import com.digitalpetri.opcua.stack.core.types.builtin.DataValueBatch;
+import com.digitalpetri.opcua.stack.core.types.builtin.DateTime;
+import com.digitalpetri.opcua.stack.core.types.builtin.ExtensionObject;
+import com.digitalpetri.opcua.stack.core.types.builtin.LocalizedText;
+import com.digitalpetri.opcua.stack.core.types.builtin.NodeId;
+import com.digitalpetri.opcua.stack.core.types.builtin.QualifiedName;
+import com.digitalpetri.opcua.stack.core.types.builtin.StatusCode;
+import com.digitalpetri.opcua.stack.core.types.builtin.Variant;
+import com.digitalpetri.opcua.stack.core.types.enumerated.MonitoringMode;
+import com.digitalpetri.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import com.digitalpetri.opcua.stack.core.types.structured.CreateMonitoredItemsRequest;
+import com.digitalpetri.opcua.stack.core.types.structured.MonitoredItemCreateRequest;
+import com.digitalpetri.opcua.stack.core.types.structured.MonitoringParameters;
+import com.digitalpetri.opcua.stack.core.types.structured.ReadValueId;
+import com.digitalpetri.opcua.stack.core.types.structured.RequestHeader;
+import com.digitalpetri.opcua.stack.core.util.BufferUtil;
+import io.netty.buffer.ByteBuf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryCodecBenchmark {
+
+    @Param({"16", "1024"})
+    public int arrayLength;
+
+    private final BinaryEncoder encoder = new BinaryEncoder();
+    private final BinaryDecoder decoder = new BinaryDecoder();
+
+    private ByteBuf buffer;
+
+    private Variant doubleArray;
+    private Variant int32Array;
+    private Variant stringArray;
+    private DataValue dataValue;
+    private double[] samples;
+    private DataValueBatch dataValueBatch;
+    private ReadValueId readValueId;
+    private ExtensionObject extensionObject;
+    private CreateMonitoredItemsRequest createMonitoredItemsRequest;
+
+    private ByteBuf encodedScalars;
+    private ByteBuf encodedDoubleArray;
+    private ByteBuf encodedInt32Array;
+    private ByteBuf encodedStringArray;
+    private ByteBuf encodedDataValue;
+    private ByteBuf encodedExtensionObject;
+    private ByteBuf encodedCreateMonitoredItemsRequest;
+
+    @Setup
+    public void setUp() {
+        buffer = BufferUtil.buffer();
+
+        Double[] doubles = new Double[arrayLength];
+        Integer[] int32s = new Integer[arrayLength];
+        String[] strings = new String[arrayLength];
+
+        for (int i = 0; i < arrayLength; i++) {
+            doubles[i] = i * 1.5d;
+            int32s[i] = i;
+            strings[i] = "Value" + i;
+        }
+
+        doubleArray = new Variant(doubles);
+        int32Array = new Variant(int32s);
+        stringArray = new Variant(strings);
+
+        dataValue = new DataValue(new Variant(42.0d), StatusCode.GOOD, DateTime.now(), DateTime.now());
+
+        samples = new double[arrayLength];
+        for (int i = 0; i < arrayLength; i++) {
+            samples[i] = i * 1.5d;
+        }
+        dataValueBatch = new DataValueBatch(arrayLength);
+
+        readValueId = new ReadValueId(
+                new NodeId(2, "Channel1.Device1.Tag1"),
+                uint(13), null,
+                new QualifiedName(0, "DefaultBinary"));
+
+        extensionObject = ExtensionObject.encode(readValueId);
+
+        MonitoredItemCreateRequest[] itemsToCreate = new MonitoredItemCreateRequest[arrayLength];
+
+        for (int i = 0; i < arrayLength; i++) {
+            itemsToCreate[i] = new MonitoredItemCreateRequest(
+                    new ReadValueId(new NodeId(2, "Channel1.Device1.Tag" + i), uint(13), null, QualifiedName.NULL_VALUE),
+                    MonitoringMode.Reporting,
+                    new MonitoringParameters(uint(i), 1000.0, null, uint(10), true));
+        }
+
+        createMonitoredItemsRequest = new CreateMonitoredItemsRequest(
+                new RequestHeader(NodeId.NULL_VALUE, DateTime.now(), uint(1), uint(0), null, uint(60000), null),
+                uint(1), TimestampsToReturn.Both, itemsToCreate);
+
+        encodedScalars = encode(this::writeScalars);
+        encodedDoubleArray = encode(e -> e.encodeVariant(null, doubleArray));
+        encodedInt32Array = encode(e -> e.encodeVariant(null, int32Array));
+        encodedStringArray = encode(e -> e.encodeVariant(null, stringArray));
+        encodedDataValue = encode(e -> e.encodeDataValue(null, dataValue));
+        encodedExtensionObject = encode(e -> e.encodeExtensionObject(null, extensionObject));
+        encodedCreateMonitoredItemsRequest = encode(e -> e.encodeMessage(null, createMonitoredItemsRequest));
+    }
+
+    @TearDown
+    public void tearDown() {
+        buffer.release();
+        encodedScalars.release();
+        encodedDoubleArray.release();
+        encodedInt32Array.release();
+        encodedStringArray.release();
+        encodedDataValue.release();
+        encodedExtensionObject.release();
+        encodedCreateMonitoredItemsRequest.release();
+    }
+
+    @Benchmark
+    public int encodeScalars() {
+        writeScalars(encoder.setBuffer(buffer.clear()));
+
+        return buffer.writerIndex();
+    }
+
+    @Benchmark
+    public void decodeScalars(Blackhole bh) {
+        decoder.setBuffer(encodedScalars.readerIndex(0));
+
+        bh.consume(decoder.decodeBoolean(null));
+        bh.consume(decoder.decodeInt32(null));
+        bh.consume(decoder.decodeUInt32(null));
+        bh.consume(decoder.decodeInt64(null));
+        bh.consume(decoder.decodeDouble(null));
+        bh.consume(decoder.decodeString(null));
+        bh.consume(decoder.decodeDateTime(null));
+        bh.consume(decoder.decodeGuid(null));
+        bh.consume(decoder.decodeNodeId(null));
+        bh.consume(decoder.decodeNodeId(null));
+        bh.consume(decoder.decodeStatusCode(null));
+        bh.consume(decoder.decodeQualifiedName(null));
+        bh.consume(decoder.decodeLocalizedText(null));
+    }
+
+    @Benchmark
+    public int encodeStrings() {
+        encoder.setBuffer(buffer.clear());
+
+        encoder.encodeString(null, "Channel1.Device1.Tag1");
+        encoder.encodeQualifiedName(null, new QualifiedName(2, "BrowseName"));
+        encoder.encodeLocalizedText(null, LocalizedText.english("Display Name"));
+        encoder.encodeString(null, "Temp\u00e9rature \u00b0C");
+
+        return buffer.writerIndex();
+    }
+
+    @Benchmark
+    public int encodeDoubleArrayVariant() {
+        encoder.setBuffer(buffer.clear()).encodeVariant(null, doubleArray);
+
+        return buffer.writerIndex();
+    }
+
+    @Benchmark
+    public Variant decodeDoubleArrayVariant() {
+        return decoder.setBuffer(encodedDoubleArray.readerIndex(0)).decodeVariant(null);
+    }
+
+    @Benchmark
+    public int encodeInt32ArrayVariant() {
+        encoder.setBuffer(buffer.clear()).encodeVariant(null, int32Array);
+
+        return buffer.writerIndex();
+    }
+
+    @Benchmark
+    public Variant decodeInt32ArrayVariant() {
+        return decoder.setBuffer(encodedInt32Array.readerIndex(0)).decodeVariant(null);
+    }
+
+    @Benchmark
+    public int encodeStringArrayVariant() {
+        encoder.setBuffer(buffer.clear()).encodeVariant(null, stringArray);
+
+        return buffer.writerIndex();
+    }
+
+    @Benchmark
+    public Variant decodeStringArrayVariant() {
+        return decoder.setBuffer(encodedStringArray.readerIndex(0)).decodeVariant(null);
+    }
+
+    @Benchmark
+    public int encodeDataValue() {
+        encoder.setBuffer(buffer.clear()).encodeDataValue(null, dataValue);
+
+        return buffer.writerIndex();
+    }
+
+    @Benchmark
+    public DataValue decodeDataValue() {
+        return decoder.setBuffer(encodedDataValue.readerIndex(0)).decodeDataValue(null);
+    }
+
+    @Benchmark
+    public int encodeSampledDataValues() {
+        DataValue[] dataValues = new DataValue[samples.length];
+
+        for (int i = 0; i < samples.length; i++) {
+            DateTime now = DateTime.now();
+            dataValues[i] = new DataValue(new Variant(samples[i]), StatusCode.GOOD, now, now);
+        }
+
+        encoder.setBuffer(buffer.clear()).encodeArray(null, dataValues, encoder::encodeDataValue);
+
+        return buffer.writerIndex();
+    }
+
+    @Benchmark
+    public int encodeSampledDataValueBatch() {
+        dataValueBatch.clear();
+
+        for (double sample : samples) {
+            long now = DateTime.now().getUtcTime();
+            dataValueBatch.add(sample, StatusCode.GOOD.getValue(), now, now);
+        }
+
+        encoder.setBuffer(buffer.clear()).encodeDataValueBatch(null, dataValueBatch);
+
+        return buffer.writerIndex();
+    }
+
+    @Benchmark
+    public int encodeExtensionObject() {
+        encoder.setBuffer(buffer.clear()).encodeExtensionObject(null, extensionObject);
+
+        return buffer.writerIndex();
+    }
+
+    @Benchmark
+    public int encodeStructureExtensionObject() {
+        encoder.setBuffer(buffer.clear()).encodeExtensionObject(null, ExtensionObject.encode(readValueId));
+
+        return buffer.writerIndex();
+    }
+
+    @Benchmark
+    public int encodeDeferredExtensionObject() {
+        encoder.setBuffer(buffer.clear()).encodeExtensionObject(null, ExtensionObject.encodeDeferred(readValueId));
+
+        return buffer.writerIndex();
+    }
+
+    @Benchmark
+    public Object decodeExtensionObject() {
+        ExtensionObject xo = decoder
+                .setBuffer(encodedExtensionObject.readerIndex(0))
+                .decodeExtensionObject(null);
+
+        return xo.decode();
+    }
+
+    @Benchmark
+    public int encodeCreateMonitoredItemsRequest() {
+        encoder.setBuffer(buffer.clear()).encodeMessage(null, createMonitoredItemsRequest);
+
+        return buffer.writerIndex();
+    }
+
+    @Benchmark
+    public CreateMonitoredItemsRequest decodeCreateMonitoredItemsRequest() {
+        return decoder
+                .setBuffer(encodedCreateMonitoredItemsRequest.readerIndex(0))
+                .decodeMessage(null);
+    }
+
+    private void writeScalars(BinaryEncoder encoder) {
+        encoder.encodeBoolean(null, true);
+        encoder.encodeInt32(null, 42);
+        encoder.encodeUInt32(null, uint(100000));
+        encoder.encodeInt64(null, 42L);
+        encoder.encodeDouble(null, 3.14d);
+        encoder.encodeString(null, "Channel1.Device1.Tag1");
+        encoder.encodeDateTime(null, DateTime.now());
+        encoder.encodeGuid(null, new UUID(1L, 2L));
+        encoder.encodeNodeId(null, new NodeId(0, 631));
+        encoder.encodeNodeId(null, new NodeId(2, "Channel1.Device1.Tag1"));
+        encoder.encodeStatusCode(null, StatusCode.GOOD);
+        encoder.encodeQualifiedName(null, new QualifiedName(0, "BrowseName"));
+        encoder.encodeLocalizedText(null, LocalizedText.english("DisplayName"));
+    }
+
+    private ByteBuf encode(Consumer<BinaryEncoder> consumer) {
+        ByteBuf encoded = BufferUtil.buffer();
+
+        consumer.accept(new BinaryEncoder().setBuffer(encoded));
+
+        return encoded;
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2016 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import com.digitalpetri.opcua.stack.core.Stack;
+import com.digitalpetri.opcua.stack.core.channel.ChannelConfig;
+import com.digitalpetri.opcua.stack.core.channel.ChannelParameters;
+import com.digitalpetri.opcua.stack.core.channel.ChunkDecoder;
+import com.digitalpetri.opcua.stack.core.channel.ChunkEncoder;
+import com.digitalpetri.opcua.stack.core.channel.ClientSecureChannel;
+import com.digitalpetri.opcua.stack.core.channel.ServerSecureChannel;
+import com.digitalpetri.opcua.stack.core.channel.messages.MessageType;
+import com.digitalpetri.opcua.stack.core.security.SecurityPolicy;
+import com.digitalpetri.opcua.stack.core.types.enumerated.MessageSecurityMode;
+import com.digitalpetri.opcua.stack.core.util.BufferUtil;
+import com.digitalpetri.opcua.stack.core.util.CryptoRestrictions;
+import com.digitalpetri.opcua.stack.core.util.LongSequence;
+import io.netty.buffer.ByteBuf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Symmetric chunk encoding and decoding for every {@link SecurityPolicy} and {@link MessageSecurityMode}.
+ * <p>
+ * Decoding requires contiguous sequence numbers, so it is measured as an encode/decode round trip; subtract
+ * {@link #encodeSymmetric()} to isolate the decode cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkCodecBenchmark {
+
+    static {
+        CryptoRestrictions.remove();
+    }
+
+    @Param({
+            "None",
+            "Basic128Rsa15_Sign",
+            "Basic128Rsa15_SignAndEncrypt",
+            "Basic256_Sign",
+            "Basic256_SignAndEncrypt",
+            "Basic256Sha256_Sign",
+            "Basic256Sha256_SignAndEncrypt"
+    })
+    public String security;
+
+    @Param({"1024", "65536", "1048576"})
+    public int messageSize;
+
+    @Param({"false", "true"})
+    public boolean parallelChunkCrypto;
+
+    private final ChannelParameters parameters = new ChannelParameters(
+            ChannelConfig.DEFAULT_MAX_MESSAGE_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_COUNT,
+            ChannelConfig.DEFAULT_MAX_MESSAGE_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_COUNT
+    );
+
+    private final LongSequence requestId = new LongSequence(1L, 4294967295L);
+
+    private ChunkEncoder encoder;
+    private ChunkDecoder decoder;
+
+    private ClientSecureChannel clientChannel;
+    private ServerSecureChannel serverChannel;
+
+    private ByteBuf messageBuffer;
+
+    @Setup
+    public void setUp() throws Exception {
+        String[] ss = security.split("_");
+        SecurityPolicy securityPolicy = SecurityPolicy.valueOf(ss[0]);
+        MessageSecurityMode messageSecurity = ss.length > 1 ?
+                MessageSecurityMode.valueOf(ss[1]) : MessageSecurityMode.None;
+
+        SecureChannelPair channels = new SecureChannelPair(
+                new KeyStoreLoader().load(), securityPolicy, messageSecurity);
+
+        clientChannel = channels.getClientChannel();
+        serverChannel = channels.getServerChannel();
+
+        ForkJoinPool chunkCryptoPool = parallelChunkCrypto ? Stack.sharedChunkCryptoPool() : null;
+
+        encoder = new ChunkEncoder(parameters, chunkCryptoPool);
+        decoder = new ChunkDecoder(parameters, chunkCryptoPool);
+
+        byte[] messageBytes = new byte[messageSize];
+        for (int i = 0; i < messageBytes.length; i++) {
+            messageBytes[i] = (byte) i;
+        }
+
+        messageBuffer = BufferUtil.buffer(messageSize).writeBytes(messageBytes);
+    }
+
+    @TearDown
+    public void tearDown() {
+        messageBuffer.release();
+    }
+
+    @Benchmark
+    public int encodeSymmetric() throws Exception {
+        List<ByteBuf> chunks = encoder.encodeSymmetric(
+                clientChannel,
+                MessageType.SecureMessage,
+                messageBuffer.readerIndex(0),
+                requestId.getAndIncrement()
+        );
+
+        int chunkCount = chunks.size();
+        chunks.forEach(ByteBuf::release);
+
+        return chunkCount;
+    }
+
+    @Benchmark
+    public int encodeDecodeSymmetric() throws Exception {
+        List<ByteBuf> chunks = encoder.encodeSymmetric(
+                clientChannel,
+                MessageType.SecureMessage,
+                messageBuffer.readerIndex(0),
+                requestId.getAndIncrement()
+        );
+
+        ByteBuf decoded = decoder.decodeSymmetric(serverChannel, chunks);
+
+        int decodedSize = decoded.readableBytes();
+        decoded.release();
+
+        return decodedSize;
+    }
+
+}
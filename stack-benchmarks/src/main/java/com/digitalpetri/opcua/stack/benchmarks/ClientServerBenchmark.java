@@ -0,0 +1,142 @@
+/*
+ * Copyright 2016 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.benchmarks;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import com.digitalpetri.opcua.stack.client.UaTcpStackClient;
+import com.digitalpetri.opcua.stack.client.config.UaTcpStackClientConfig;
+import com.digitalpetri.opcua.stack.core.AttributeId;
+import com.digitalpetri.opcua.stack.core.Stack;
+import com.digitalpetri.opcua.stack.core.application.DefaultCertificateManager;
+import com.digitalpetri.opcua.stack.core.application.DefaultCertificateValidator;
+import com.digitalpetri.opcua.stack.core.security.SecurityPolicy;
+import com.digitalpetri.opcua.stack.core.types.builtin.DataValue;
+import com.digitalpetri.opcua.stack.core.types.builtin.DateTime;
+import com.digitalpetri.opcua.stack.core.types.builtin.NodeId;
+import com.digitalpetri.opcua.stack.core.types.builtin.Variant;
+import com.digitalpetri.opcua.stack.core.types.enumerated.MessageSecurityMode;
+import com.digitalpetri.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import com.digitalpetri.opcua.stack.core.types.structured.EndpointDescription;
+import com.digitalpetri.opcua.stack.core.types.structured.ReadRequest;
+import com.digitalpetri.opcua.stack.core.types.structured.ReadResponse;
+import com.digitalpetri.opcua.stack.core.types.structured.ReadValueId;
+import com.digitalpetri.opcua.stack.core.types.structured.RequestHeader;
+import com.digitalpetri.opcua.stack.server.config.UaTcpStackServerConfig;
+import com.digitalpetri.opcua.stack.server.tcp.UaTcpStackServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+
+/**
+ * A Read service round trip between a {@link UaTcpStackClient} and a {@link UaTcpStackServer} over loopback.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientServerBenchmark {
+
+    private static final String ENDPOINT_URL = "opc.tcp://localhost:12686/benchmark";
+
+    @Param({"1", "1000"})
+    public int nodeCount;
+
+    private UaTcpStackServer server;
+    private UaTcpStackClient client;
+
+    private ReadValueId[] nodesToRead;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyStoreLoader loader = new KeyStoreLoader().load();
+
+        File securityDir = Files.createTempDirectory("benchmark-security").toFile();
+
+        UaTcpStackServerConfig serverConfig = UaTcpStackServerConfig.builder()
+                .setServerName("benchmark")
+                .setCertificateManager(new DefaultCertificateManager(
+                        loader.getServerKeyPair(), loader.getServerCertificate()))
+                .setCertificateValidator(new DefaultCertificateValidator(securityDir))
+                .build();
+
+        server = new UaTcpStackServer(serverConfig);
+
+        server.addEndpoint(ENDPOINT_URL, null, loader.getServerCertificate(),
+                SecurityPolicy.None, MessageSecurityMode.None);
+
+        server.addRequestHandler(ReadRequest.class, service -> {
+            ReadRequest request = service.getRequest();
+
+            DataValue[] results = new DataValue[request.getNodesToRead().length];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = new DataValue(new Variant((double) i));
+            }
+
+            service.setResponse(new ReadResponse(service.createResponseHeader(), results, null));
+        });
+
+        server.startup();
+
+        EndpointDescription[] endpoints = UaTcpStackClient.getEndpoints(ENDPOINT_URL).get();
+
+        UaTcpStackClientConfig clientConfig = UaTcpStackClientConfig.builder()
+                .setEndpoint(endpoints[0])
+                .build();
+
+        client = new UaTcpStackClient(clientConfig);
+        client.connect().get();
+
+        nodesToRead = new ReadValueId[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            nodesToRead[i] = new ReadValueId(new NodeId(2, i), AttributeId.Value.uid(), null, null);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        client.disconnect().get();
+        server.shutdown();
+        Stack.releaseSharedResources();
+    }
+
+    @Benchmark
+    public ReadResponse read() throws Exception {
+        RequestHeader header = new RequestHeader(
+                NodeId.NULL_VALUE, DateTime.now(), uint(0), uint(0), null, uint(60000), null);
+
+        ReadRequest request = new ReadRequest(header, 0.0, TimestampsToReturn.Neither, nodesToRead);
+
+        return client.<ReadResponse>sendRequest(request).get();
+    }
+
+}
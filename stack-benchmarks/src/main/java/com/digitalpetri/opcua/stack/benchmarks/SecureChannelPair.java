@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.benchmarks;
+
+import com.digitalpetri.opcua.stack.core.channel.ChannelSecurity;
+import com.digitalpetri.opcua.stack.core.channel.ClientSecureChannel;
+import com.digitalpetri.opcua.stack.core.channel.ServerSecureChannel;
+import com.digitalpetri.opcua.stack.core.security.SecurityPolicy;
+import com.digitalpetri.opcua.stack.core.types.builtin.ByteString;
+import com.digitalpetri.opcua.stack.core.types.builtin.DateTime;
+import com.digitalpetri.opcua.stack.core.types.enumerated.MessageSecurityMode;
+import com.digitalpetri.opcua.stack.core.types.structured.ChannelSecurityToken;
+import com.google.common.collect.Lists;
+
+import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static com.digitalpetri.opcua.stack.core.util.NonceUtil.generateNonce;
+import static com.digitalpetri.opcua.stack.core.util.NonceUtil.getNonceLength;
+
+/**
+ * A connected pair of {@link ClientSecureChannel} and {@link ServerSecureChannel} with symmetric keys already
+ * derived, as they would be after a successful OpenSecureChannel exchange.
+ */
+class SecureChannelPair {
+
+    private final ClientSecureChannel clientChannel;
+    private final ServerSecureChannel serverChannel;
+
+    SecureChannelPair(KeyStoreLoader loader,
+                      SecurityPolicy securityPolicy,
+                      MessageSecurityMode messageSecurity) throws Exception {
+
+        ByteString clientNonce = generateNonce(getNonceLength(securityPolicy.getSymmetricEncryptionAlgorithm()));
+        ByteString serverNonce = generateNonce(getNonceLength(securityPolicy.getSymmetricEncryptionAlgorithm()));
+
+        boolean secured = securityPolicy != SecurityPolicy.None;
+
+        clientChannel = new ClientSecureChannel(
+                secured ? loader.getClientKeyPair() : null,
+                secured ? loader.getClientCertificate() : null,
+                secured ? loader.getServerCertificate() : null,
+                secured ? Lists.newArrayList(loader.getServerCertificate()) : null,
+                securityPolicy,
+                messageSecurity
+        );
+
+        clientChannel.setLocalNonce(clientNonce);
+        clientChannel.setRemoteNonce(serverNonce);
+
+        serverChannel = new ServerSecureChannel();
+        serverChannel.setSecurityPolicy(securityPolicy);
+        serverChannel.setMessageSecurityMode(messageSecurity);
+        serverChannel.setLocalNonce(serverNonce);
+        serverChannel.setRemoteNonce(clientNonce);
+
+        if (secured) {
+            serverChannel.setKeyPair(loader.getServerKeyPair());
+            serverChannel.setLocalCertificate(loader.getServerCertificate());
+            serverChannel.setRemoteCertificate(loader.getClientCertificate().getEncoded());
+        }
+
+        if (secured && messageSecurity != MessageSecurityMode.None) {
+            ChannelSecurityToken token = new ChannelSecurityToken(uint(0), uint(1), DateTime.now(), uint(60000));
+
+            ChannelSecurity.SecuritySecrets clientSecrets = ChannelSecurity.generateKeyPair(
+                    clientChannel, clientNonce, serverNonce);
+
+            ChannelSecurity.SecuritySecrets serverSecrets = ChannelSecurity.generateKeyPair(
+                    serverChannel, clientNonce, serverNonce);
+
+            clientChannel.setChannelSecurity(new ChannelSecurity(clientSecrets, token));
+            serverChannel.setChannelSecurity(new ChannelSecurity(serverSecrets, token));
+        }
+    }
+
+    ClientSecureChannel getClientChannel() {
+        return clientChannel;
+    }
+
+    ServerSecureChannel getServerChannel() {
+        return serverChannel;
+    }
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2016 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.digitalpetri.opcua.stack.core.serialization.DecoderDelegate;
+import com.digitalpetri.opcua.stack.core.serialization.DelegateRegistry;
+import com.digitalpetri.opcua.stack.core.types.structured.ReadRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cold-start cost of the serialization layer: the time for a fresh JVM to initialize the
+ * {@link DelegateRegistry} and look up its first message decoder.
+ * <p>
+ * Each fork measures exactly one initialization, so the score is the mean over forks. The lazy variant sets
+ * {@link DelegateRegistry#LAZY_REGISTRATION_PROPERTY}, so only the types that are looked up get registered.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class StartupBenchmark {
+
+    @Benchmark
+    public DecoderDelegate<ReadRequest> initializeDelegateRegistry() {
+        return DelegateRegistry.getDecoder(ReadRequest.class);
+    }
+
+    @Benchmark
+    @Fork(value = 20, jvmArgsAppend = "-Dcom.digitalpetri.opcua.stack.core.serialization.DelegateRegistry.lazyRegistration=true")
+    public DecoderDelegate<ReadRequest> initializeDelegateRegistryLazily() {
+        return DelegateRegistry.getDecoder(ReadRequest.class);
+    }
+
+}
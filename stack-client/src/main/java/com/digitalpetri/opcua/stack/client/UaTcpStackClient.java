@@ -29,6 +29,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import com.digitalpetri.opcua.stack.client.config.UaTcpStackClientConfig;
 import com.digitalpetri.opcua.stack.client.handlers.UaRequestFuture;
@@ -42,6 +43,8 @@ import com.digitalpetri.opcua.stack.core.channel.ChannelConfig;
 import com.digitalpetri.opcua.stack.core.channel.ClientSecureChannel;
 import com.digitalpetri.opcua.stack.core.serialization.UaRequestMessage;
 import com.digitalpetri.opcua.stack.core.serialization.UaResponseMessage;
+import com.digitalpetri.opcua.stack.core.serialization.binary.BinaryDecoder;
+import com.digitalpetri.opcua.stack.core.serialization.binary.LazyArrayResponse;
 import com.digitalpetri.opcua.stack.core.types.builtin.DateTime;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UInteger;
 import com.digitalpetri.opcua.stack.core.types.enumerated.ApplicationType;
@@ -65,6 +68,7 @@ import io.netty.channel.ChannelOption;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.util.HashedWheelTimer;
+import io.netty.util.ReferenceCountUtil;
 import io.netty.util.Timeout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -126,16 +130,38 @@ public class UaTcpStackClient implements UaStackClient {
     }
 
     public <T extends UaResponseMessage> CompletableFuture<T> sendRequest(UaRequestMessage request) {
+        return sendRequest(request, decoder -> decoder.decodeMessage(null));
+    }
+
+    /**
+     * Send a request whose response is decoded by {@link LazyArrayResponse#decodeResponse(BinaryDecoder)}: the
+     * response to a ReadRequest, BrowseRequest or HistoryReadRequest is a {@link LazyArrayResponse} whose results are
+     * decoded as they are accessed, and any other response is decoded as usual.
+     * <p>
+     * A {@link LazyArrayResponse} holds a reference to the message buffer and must be released by the caller.
+     */
+    public <T extends UaResponseMessage> CompletableFuture<T> sendRequestLazily(UaRequestMessage request) {
+        return sendRequest(request, LazyArrayResponse::decodeResponse);
+    }
+
+    private <T extends UaResponseMessage> CompletableFuture<T> sendRequest(
+            UaRequestMessage request,
+            Function<BinaryDecoder, UaResponseMessage> responseDecoder) {
+
         return channelManager.getChannel()
-                .thenCompose(sc -> sendRequest(request, sc));
+                .thenCompose(sc -> sendRequest(request, responseDecoder, sc));
     }
 
     @SuppressWarnings("unchecked")
-    private <T extends UaResponseMessage> CompletionStage<T> sendRequest(UaRequestMessage request, ClientSecureChannel sc) {
+    private <T extends UaResponseMessage> CompletionStage<T> sendRequest(
+            UaRequestMessage request,
+            Function<BinaryDecoder, UaResponseMessage> responseDecoder,
+            ClientSecureChannel sc) {
+
         Channel channel = sc.getChannel();
 
         CompletableFuture<T> future = new CompletableFuture<>();
-        UaRequestFuture requestFuture = new UaRequestFuture(request);
+        UaRequestFuture requestFuture = new UaRequestFuture(request, new CompletableFuture<>(), responseDecoder);
 
         RequestHeader requestHeader = request.getRequestHeader();
 
@@ -161,7 +187,7 @@ public class UaTcpStackClient implements UaStackClient {
                 if (cause instanceof ClosedChannelException) {
                     logger.debug("Channel closed; retrying...");
 
-                    sendRequest(request).whenComplete((r, ex) -> {
+                    this.<T>sendRequest(request, responseDecoder).whenComplete((r, ex) -> {
                         if (r != null) {
                             T t = (T) r;
                             future.complete(t);
@@ -285,6 +311,8 @@ public class UaTcpStackClient implements UaStackClient {
                 }
 
                 future.completeExceptionally(new UaServiceFaultException(serviceFault));
+
+                ReferenceCountUtil.release(response);
             }
 
             Timeout timeout = timeouts.remove(requestHandle);
@@ -292,6 +320,8 @@ public class UaTcpStackClient implements UaStackClient {
         } else {
             logger.warn("Received {} for unknown requestHandle: {}",
                     response.getClass().getSimpleName(), requestHandle);
+
+            ReferenceCountUtil.release(response);
         }
     }
 
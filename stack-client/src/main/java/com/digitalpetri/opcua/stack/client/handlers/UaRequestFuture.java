@@ -17,22 +17,36 @@
 package com.digitalpetri.opcua.stack.client.handlers;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 import com.digitalpetri.opcua.stack.core.serialization.UaRequestMessage;
 import com.digitalpetri.opcua.stack.core.serialization.UaResponseMessage;
+import com.digitalpetri.opcua.stack.core.serialization.binary.BinaryDecoder;
 
 public class UaRequestFuture {
 
     private final UaRequestMessage request;
     private final CompletableFuture<UaResponseMessage> future;
+    private final Function<BinaryDecoder, UaResponseMessage> responseDecoder;
 
     public UaRequestFuture(UaRequestMessage request) {
         this(request, new CompletableFuture<>());
     }
 
     public UaRequestFuture(UaRequestMessage request, CompletableFuture<UaResponseMessage> future) {
+        this(request, future, decoder -> decoder.decodeMessage(null));
+    }
+
+    /**
+     * @param responseDecoder decodes the response message, starting at its encoding id, from the decoder it is given.
+     */
+    public UaRequestFuture(UaRequestMessage request,
+                           CompletableFuture<UaResponseMessage> future,
+                           Function<BinaryDecoder, UaResponseMessage> responseDecoder) {
+
         this.request = request;
         this.future = future;
+        this.responseDecoder = responseDecoder;
     }
 
     public UaRequestMessage getRequest() {
@@ -43,4 +57,8 @@ public class UaRequestFuture {
         return future;
     }
 
+    public UaResponseMessage decodeResponse(BinaryDecoder decoder) {
+        return responseDecoder.apply(decoder);
+    }
+
 }
@@ -30,7 +30,9 @@ import com.digitalpetri.opcua.stack.core.StatusCodes;
 import com.digitalpetri.opcua.stack.core.UaException;
 import com.digitalpetri.opcua.stack.core.UaRuntimeException;
 import com.digitalpetri.opcua.stack.core.UaServiceFaultException;
+import com.digitalpetri.opcua.stack.core.channel.ChannelConfig;
 import com.digitalpetri.opcua.stack.core.channel.ChannelSecurity;
+import com.digitalpetri.opcua.stack.core.channel.ChunkWriteQueue;
 import com.digitalpetri.opcua.stack.core.channel.ClientSecureChannel;
 import com.digitalpetri.opcua.stack.core.channel.MessageAbortedException;
 import com.digitalpetri.opcua.stack.core.channel.SerializationQueue;
@@ -40,6 +42,7 @@ import com.digitalpetri.opcua.stack.core.channel.messages.ErrorMessage;
 import com.digitalpetri.opcua.stack.core.channel.messages.MessageType;
 import com.digitalpetri.opcua.stack.core.channel.messages.TcpMessageDecoder;
 import com.digitalpetri.opcua.stack.core.security.SecurityAlgorithm;
+import com.digitalpetri.opcua.stack.core.serialization.EncodedSizeEstimator;
 import com.digitalpetri.opcua.stack.core.serialization.UaRequestMessage;
 import com.digitalpetri.opcua.stack.core.serialization.UaResponseMessage;
 import com.digitalpetri.opcua.stack.core.types.builtin.ByteString;
@@ -63,6 +66,7 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageCodec;
 import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
 import io.netty.util.Timeout;
 import org.jooq.lambda.tuple.Tuple2;
 import org.slf4j.Logger;
@@ -75,12 +79,25 @@ public class UaTcpClientMessageHandler extends ByteToMessageCodec<UaRequestFutur
     public static final AttributeKey<Map<Long, UaRequestFuture>> KEY_PENDING_REQUEST_FUTURES =
             AttributeKey.valueOf("pending-request-futures");
 
+    /**
+     * Learns the encoded size of each request class so request buffers can be allocated at about the right size.
+     */
+    private static final EncodedSizeEstimator SIZE_ESTIMATOR =
+            new EncodedSizeEstimator(ChannelConfig.DEFAULT_MAX_MESSAGE_SIZE);
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     private List<ByteBuf> chunkBuffers = new LinkedList<>();
 
+    /**
+     * The number of chunks received so far for the symmetric message currently being decoded.
+     */
+    private int secureMessageChunkCount;
+
     private final AtomicReference<AsymmetricSecurityHeader> headerRef = new AtomicReference<>();
 
+    private ChunkWriteQueue chunkWriteQueue;
+
     private ScheduledFuture renewFuture;
     private Timeout secureChannelTimeout;
 
@@ -134,6 +151,8 @@ public class UaTcpClientMessageHandler extends ByteToMessageCodec<UaRequestFutur
 
     @Override
     public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        chunkWriteQueue = new ChunkWriteQueue(ctx);
+
         SecurityTokenRequestType requestType = secureChannel.getChannelId() == 0 ?
                 SecurityTokenRequestType.Issue : SecurityTokenRequestType.Renew;
 
@@ -162,6 +181,8 @@ public class UaTcpClientMessageHandler extends ByteToMessageCodec<UaRequestFutur
         handshakeFuture.completeExceptionally(
                 new UaException(StatusCodes.Bad_ConnectionClosed, "connection closed"));
 
+        serializationQueue.decode((binaryDecoder, chunkDecoder) -> chunkDecoder.close());
+
         super.channelInactive(ctx);
     }
 
@@ -260,10 +281,7 @@ public class UaTcpClientMessageHandler extends ByteToMessageCodec<UaRequestFutur
             // upper layers as well as normal completion.
             request.getFuture().whenComplete((r, x) -> pending.remove(requestId));
 
-            ctx.executor().execute(() -> {
-                chunks.forEach(c -> ctx.write(c, ctx.voidPromise()));
-                ctx.flush();
-            });
+            chunkWriteQueue.write(chunks);
         });
     }
 
@@ -277,9 +295,10 @@ public class UaTcpClientMessageHandler extends ByteToMessageCodec<UaRequestFutur
             ByteBuf messageBuffer = null;
 
             try {
-                messageBuffer = BufferUtil.buffer();
+                messageBuffer = BufferUtil.buffer(SIZE_ESTIMATOR.estimate(request));
                 binaryEncoder.setBuffer(messageBuffer);
                 binaryEncoder.encodeMessage(null, request);
+                SIZE_ESTIMATOR.update(request, messageBuffer.readableBytes());
 
                 List<ByteBuf> chunks;
 
@@ -350,6 +369,16 @@ public class UaTcpClientMessageHandler extends ByteToMessageCodec<UaRequestFutur
     }
 
     private boolean accumulateChunk(ByteBuf buffer) throws UaException {
+        validateChunk(buffer, chunkBuffers.size() + 1);
+
+        chunkBuffers.add(buffer.retain());
+
+        char chunkType = (char) buffer.getByte(3);
+
+        return (chunkType == 'A' || chunkType == 'F');
+    }
+
+    private void validateChunk(ByteBuf buffer, int chunkCount) throws UaException {
         int maxChunkCount = serializationQueue.getParameters().getLocalMaxChunkCount();
         int maxChunkSize = serializationQueue.getParameters().getLocalReceiveBufferSize();
 
@@ -360,16 +389,10 @@ public class UaTcpClientMessageHandler extends ByteToMessageCodec<UaRequestFutur
                     String.format("max chunk size exceeded (%s)", maxChunkSize));
         }
 
-        chunkBuffers.add(buffer.retain());
-
-        if (chunkBuffers.size() > maxChunkCount) {
+        if (chunkCount > maxChunkCount) {
             throw new UaException(StatusCodes.Bad_TcpMessageTooLarge,
                     String.format("max chunk count exceeded (%s)", maxChunkCount));
         }
-
-        char chunkType = (char) buffer.getByte(3);
-
-        return (chunkType == 'A' || chunkType == 'F');
     }
 
     private void onOpenSecureChannel(ChannelHandlerContext ctx, ByteBuf buffer) throws UaException {
@@ -511,49 +534,77 @@ public class UaTcpClientMessageHandler extends ByteToMessageCodec<UaRequestFutur
                     "invalid secure channel id: " + secureChannelId);
         }
 
-        if (accumulateChunk(buffer)) {
-            final List<ByteBuf> buffersToDecode = ImmutableList.copyOf(chunkBuffers);
-            chunkBuffers = new LinkedList<>();
+        validateChunk(buffer, ++secureMessageChunkCount);
 
-            serializationQueue.decode((binaryDecoder, chunkDecoder) -> {
-                ByteBuf decodedBuffer = null;
+        char chunkType = (char) buffer.getByte(3);
+        if (chunkType != 'C') secureMessageChunkCount = 0;
 
-                try {
-                    decodedBuffer = chunkDecoder.decodeSymmetric(secureChannel, buffersToDecode);
+        final ByteBuf chunkBuffer = buffer.retain();
 
-                    binaryDecoder.setBuffer(decodedBuffer);
-                    UaResponseMessage response = binaryDecoder.decodeMessage(null);
+        /*
+         * Each chunk is verified and decrypted as it arrives; only the final chunk hands an assembled message to
+         * the BinaryDecoder.
+         */
+        serializationQueue.decode((binaryDecoder, chunkDecoder) -> {
+            ByteBuf decodedBuffer = null;
+            UaRequestFuture request = null;
 
-                    UaRequestFuture request = pending.remove(chunkDecoder.getLastRequestId());
+            try {
+                decodedBuffer = chunkDecoder.decodeSymmetricChunk(secureChannel, chunkBuffer);
 
-                    if (request != null) {
-                        client.getExecutorService().execute(
-                                () -> request.getFuture().complete(response));
-                    } else {
-                        logger.warn("No UaRequestFuture for requestId={}", chunkDecoder.getLastRequestId());
-                    }
-                } catch (MessageAbortedException e) {
-                    logger.debug("Received message abort chunk; error={}, reason={}", e.getStatusCode(), e.getMessage());
+                if (decodedBuffer == null) return;
 
-                    UaRequestFuture request = pending.remove(chunkDecoder.getLastRequestId());
+                request = pending.remove(chunkDecoder.getLastRequestId());
 
-                    if (request != null) {
-                        client.getExecutorService().execute(
-                                () -> request.getFuture().completeExceptionally(e));
-                    } else {
-                        logger.warn("No UaRequestFuture for requestId={}", chunkDecoder.getLastRequestId());
-                    }
-                } catch (Throwable t) {
-                    logger.error("Error decoding symmetric message: {}", t.getMessage(), t);
-                    serializationQueue.pause();
-                    ctx.close();
-                } finally {
-                    if (decodedBuffer != null) {
-                        decodedBuffer.release();
-                    }
+                binaryDecoder.setBuffer(decodedBuffer);
+                UaResponseMessage response = request != null ?
+                        request.decodeResponse(binaryDecoder) :
+                        binaryDecoder.decodeMessage(null);
+
+                if (request != null) {
+                    CompletableFuture<UaResponseMessage> future = request.getFuture();
+
+                    client.getExecutorService().execute(() -> {
+                        if (!future.complete(response)) {
+                            ReferenceCountUtil.release(response);
+                        }
+                    });
+                } else {
+                    logger.warn("No UaRequestFuture for requestId={}", chunkDecoder.getLastRequestId());
                 }
-            });
-        }
+            } catch (MessageAbortedException e) {
+                logger.debug("Received message abort chunk; error={}, reason={}", e.getStatusCode(), e.getMessage());
+
+                UaRequestFuture aborted = pending.remove(chunkDecoder.getLastRequestId());
+
+                if (aborted != null) {
+                    client.getExecutorService().execute(
+                            () -> aborted.getFuture().completeExceptionally(e));
+                } else {
+                    logger.warn("No UaRequestFuture for requestId={}", chunkDecoder.getLastRequestId());
+                }
+            } catch (Throwable t) {
+                logger.error("Error decoding symmetric message: {}", t.getMessage(), t);
+
+                /*
+                 * Release the partial message now and every chunk still queued behind this one as it comes up,
+                 * rather than pausing the decoding queue with their retained buffers in it.
+                 */
+                chunkDecoder.close();
+                ctx.close();
+
+                if (request != null) {
+                    // Already removed from pending, so nothing else will complete it.
+                    CompletableFuture<UaResponseMessage> future = request.getFuture();
+
+                    client.getExecutorService().execute(() -> future.completeExceptionally(t));
+                }
+            } finally {
+                if (decodedBuffer != null) {
+                    decodedBuffer.release();
+                }
+            }
+        });
     }
 
     private void onError(ChannelHandlerContext ctx, ByteBuf buffer) {
@@ -19,6 +19,8 @@ package com.digitalpetri.opcua.stack.core;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
@@ -43,6 +45,7 @@ public final class Stack {
 
     private static NioEventLoopGroup EVENT_LOOP;
     private static ExecutorService EXECUTOR_SERVICE;
+    private static ForkJoinPool CHUNK_CRYPTO_POOL;
     private static ScheduledExecutorService SCHEDULED_EXECUTOR_SERVICE;
     private static HashedWheelTimer WHEEL_TIMER;
     private static ClassLoader CUSTOM_CLASS_LOADER;
@@ -91,6 +94,31 @@ public final class Stack {
         return EXECUTOR_SERVICE;
     }
 
+    /**
+     * @return a shared {@link ForkJoinPool}, with one thread per available processor, used when a channel has been
+     * configured to do chunk crypto in parallel.
+     */
+    public static synchronized ForkJoinPool sharedChunkCryptoPool() {
+        if (CHUNK_CRYPTO_POOL == null) {
+            ForkJoinPool.ForkJoinWorkerThreadFactory threadFactory = new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+                private final AtomicLong threadNumber = new AtomicLong(0L);
+
+                @Override
+                public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("ua-chunk-crypto-pool-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            };
+
+            CHUNK_CRYPTO_POOL = new ForkJoinPool(
+                    Runtime.getRuntime().availableProcessors(), threadFactory, null, false);
+        }
+
+        return CHUNK_CRYPTO_POOL;
+    }
+
     /**
      * @return a shared {@link ScheduledExecutorService}.
      */
@@ -181,6 +209,11 @@ public final class Stack {
             EXECUTOR_SERVICE = null;
         }
 
+        if (CHUNK_CRYPTO_POOL != null) {
+            CHUNK_CRYPTO_POOL.shutdown();
+            CHUNK_CRYPTO_POOL = null;
+        }
+
         if (WHEEL_TIMER != null) {
             WHEEL_TIMER.stop().forEach(Timeout::cancel);
             WHEEL_TIMER = null;
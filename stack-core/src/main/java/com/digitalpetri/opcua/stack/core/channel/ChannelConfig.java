@@ -42,11 +42,36 @@ public class ChannelConfig {
     public static final int DEFAULT_MAX_ARRAY_LENGTH = 65536;
     public static final int DEFAULT_MAX_STRING_LENGTH = 65536;
 
+    /**
+     * By default the crypto for every chunk of a message is done sequentially on the channel's serialization thread.
+     */
+    public static final boolean DEFAULT_PARALLEL_CHUNK_CRYPTO = false;
+
+    /**
+     * By default every decoded string is a new instance; no string cache is used.
+     */
+    public static final int DEFAULT_STRING_CACHE_SIZE = 0;
+
+    /**
+     * By default only namespace 0 NodeIds are decoded to canonical instances; no LRU NodeId cache is used.
+     */
+    public static final int DEFAULT_NODE_ID_CACHE_SIZE = 0;
+
+    /**
+     * By default ExtensionObject bodies are kept encoded until
+     * {@link com.digitalpetri.opcua.stack.core.types.builtin.ExtensionObject#decode()} is called.
+     */
+    public static final boolean DEFAULT_EAGER_EXTENSION_OBJECTS = false;
+
     private final int maxChunkSize;
     private final int maxChunkCount;
     private final int maxMessageSize;
     private final int maxArrayLength;
     private final int maxStringLength;
+    private final boolean parallelChunkCrypto;
+    private final int stringCacheSize;
+    private final int nodeIdCacheSize;
+    private final boolean eagerExtensionObjects;
 
     /**
      * Create a {@link ChannelConfig} using the default parameters.
@@ -56,25 +81,75 @@ public class ChannelConfig {
      * @see {@link ChannelConfig#DEFAULT_MAX_MESSAGE_SIZE}
      * @see {@link ChannelConfig#DEFAULT_MAX_ARRAY_LENGTH}
      * @see {@link ChannelConfig#DEFAULT_MAX_STRING_LENGTH}
+     * @see {@link ChannelConfig#DEFAULT_PARALLEL_CHUNK_CRYPTO}
+     * @see {@link ChannelConfig#DEFAULT_STRING_CACHE_SIZE}
+     * @see {@link ChannelConfig#DEFAULT_NODE_ID_CACHE_SIZE}
+     * @see {@link ChannelConfig#DEFAULT_EAGER_EXTENSION_OBJECTS}
      */
     public ChannelConfig() {
         this(DEFAULT_MAX_CHUNK_SIZE,
                 DEFAULT_MAX_CHUNK_COUNT,
                 DEFAULT_MAX_MESSAGE_SIZE,
                 DEFAULT_MAX_ARRAY_LENGTH,
-                DEFAULT_MAX_STRING_LENGTH);
+                DEFAULT_MAX_STRING_LENGTH,
+                DEFAULT_PARALLEL_CHUNK_CRYPTO,
+                DEFAULT_STRING_CACHE_SIZE,
+                DEFAULT_NODE_ID_CACHE_SIZE,
+                DEFAULT_EAGER_EXTENSION_OBJECTS);
     }
 
     /**
-     * @param maxChunkSize   The maximum size of a single chunk. Must be greater than 8192.
-     * @param maxChunkCount  The maximum number of chunks that a message can break down into.
-     * @param maxMessageSize The maximum size of a message after all chunks have been assembled.
+     * Create a {@link ChannelConfig} with the given limits and the default values for every other setting. Use
+     * {@link #builder()} to change any of the other settings.
+     *
+     * @param maxChunkSize    The maximum size of a single chunk. Must be greater than 8192.
+     * @param maxChunkCount   The maximum number of chunks that a message can break down into.
+     * @param maxMessageSize  The maximum size of a message after all chunks have been assembled.
+     * @param maxArrayLength  The maximum length of an array that will be decoded.
+     * @param maxStringLength The maximum length of a string that will be decoded.
      */
     public ChannelConfig(int maxChunkSize,
                          int maxChunkCount,
                          int maxMessageSize,
                          int maxArrayLength,
                          int maxStringLength) {
+        this(maxChunkSize,
+                maxChunkCount,
+                maxMessageSize,
+                maxArrayLength,
+                maxStringLength,
+                DEFAULT_PARALLEL_CHUNK_CRYPTO,
+                DEFAULT_STRING_CACHE_SIZE,
+                DEFAULT_NODE_ID_CACHE_SIZE,
+                DEFAULT_EAGER_EXTENSION_OBJECTS);
+    }
+
+    /**
+     * @param maxChunkSize          The maximum size of a single chunk. Must be greater than 8192.
+     * @param maxChunkCount         The maximum number of chunks that a message can break down into.
+     * @param maxMessageSize        The maximum size of a message after all chunks have been assembled.
+     * @param maxArrayLength        The maximum length of an array that will be decoded.
+     * @param maxStringLength       The maximum length of a string that will be decoded.
+     * @param parallelChunkCrypto   If true, the signing, encryption, decryption and verification of the chunks of a
+     *                              multi-chunk symmetric message is spread across
+     *                              {@link com.digitalpetri.opcua.stack.core.Stack#sharedChunkCryptoPool()}.
+     * @param stringCacheSize       If greater than 0, the number of entries in each channel's cache of decoded short
+     *                              strings, which returns the same String instance for strings received repeatedly.
+     * @param nodeIdCacheSize       If greater than 0, the number of entries in each channel's LRU cache of decoded
+     *                              NodeIds outside namespace 0.
+     * @param eagerExtensionObjects If true, binary ExtensionObject bodies with a registered decoder are decoded
+     *                              while the message is decoded, rather than copied and decoded on demand.
+     * @see ChannelConfigBuilder
+     */
+    ChannelConfig(int maxChunkSize,
+                  int maxChunkCount,
+                  int maxMessageSize,
+                  int maxArrayLength,
+                  int maxStringLength,
+                  boolean parallelChunkCrypto,
+                  int stringCacheSize,
+                  int nodeIdCacheSize,
+                  boolean eagerExtensionObjects) {
         Preconditions.checkArgument(maxChunkSize > 8192,
                 "maxChunkSize must be greater than 8192");
 
@@ -83,6 +158,10 @@ public class ChannelConfig {
         this.maxMessageSize = maxMessageSize;
         this.maxArrayLength = maxArrayLength;
         this.maxStringLength = maxStringLength;
+        this.parallelChunkCrypto = parallelChunkCrypto;
+        this.stringCacheSize = stringCacheSize;
+        this.nodeIdCacheSize = nodeIdCacheSize;
+        this.eagerExtensionObjects = eagerExtensionObjects;
     }
 
     public int getMaxChunkSize() {
@@ -105,4 +184,27 @@ public class ChannelConfig {
         return maxStringLength;
     }
 
+    public boolean isParallelChunkCrypto() {
+        return parallelChunkCrypto;
+    }
+
+    public int getStringCacheSize() {
+        return stringCacheSize;
+    }
+
+    public int getNodeIdCacheSize() {
+        return nodeIdCacheSize;
+    }
+
+    public boolean isEagerExtensionObjects() {
+        return eagerExtensionObjects;
+    }
+
+    /**
+     * @return a {@link ChannelConfigBuilder} initialized with the default settings.
+     */
+    public static ChannelConfigBuilder builder() {
+        return new ChannelConfigBuilder();
+    }
+
 }
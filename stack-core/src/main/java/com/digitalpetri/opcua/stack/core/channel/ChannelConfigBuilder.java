@@ -0,0 +1,101 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.channel;
+
+import static com.digitalpetri.opcua.stack.core.channel.ChannelConfig.DEFAULT_EAGER_EXTENSION_OBJECTS;
+import static com.digitalpetri.opcua.stack.core.channel.ChannelConfig.DEFAULT_MAX_ARRAY_LENGTH;
+import static com.digitalpetri.opcua.stack.core.channel.ChannelConfig.DEFAULT_MAX_CHUNK_COUNT;
+import static com.digitalpetri.opcua.stack.core.channel.ChannelConfig.DEFAULT_MAX_CHUNK_SIZE;
+import static com.digitalpetri.opcua.stack.core.channel.ChannelConfig.DEFAULT_MAX_MESSAGE_SIZE;
+import static com.digitalpetri.opcua.stack.core.channel.ChannelConfig.DEFAULT_MAX_STRING_LENGTH;
+import static com.digitalpetri.opcua.stack.core.channel.ChannelConfig.DEFAULT_NODE_ID_CACHE_SIZE;
+import static com.digitalpetri.opcua.stack.core.channel.ChannelConfig.DEFAULT_PARALLEL_CHUNK_CRYPTO;
+import static com.digitalpetri.opcua.stack.core.channel.ChannelConfig.DEFAULT_STRING_CACHE_SIZE;
+
+public class ChannelConfigBuilder {
+
+    private int maxChunkSize = DEFAULT_MAX_CHUNK_SIZE;
+    private int maxChunkCount = DEFAULT_MAX_CHUNK_COUNT;
+    private int maxMessageSize = DEFAULT_MAX_MESSAGE_SIZE;
+    private int maxArrayLength = DEFAULT_MAX_ARRAY_LENGTH;
+    private int maxStringLength = DEFAULT_MAX_STRING_LENGTH;
+
+    private boolean parallelChunkCrypto = DEFAULT_PARALLEL_CHUNK_CRYPTO;
+    private int stringCacheSize = DEFAULT_STRING_CACHE_SIZE;
+    private int nodeIdCacheSize = DEFAULT_NODE_ID_CACHE_SIZE;
+    private boolean eagerExtensionObjects = DEFAULT_EAGER_EXTENSION_OBJECTS;
+
+    public ChannelConfigBuilder setMaxChunkSize(int maxChunkSize) {
+        this.maxChunkSize = maxChunkSize;
+        return this;
+    }
+
+    public ChannelConfigBuilder setMaxChunkCount(int maxChunkCount) {
+        this.maxChunkCount = maxChunkCount;
+        return this;
+    }
+
+    public ChannelConfigBuilder setMaxMessageSize(int maxMessageSize) {
+        this.maxMessageSize = maxMessageSize;
+        return this;
+    }
+
+    public ChannelConfigBuilder setMaxArrayLength(int maxArrayLength) {
+        this.maxArrayLength = maxArrayLength;
+        return this;
+    }
+
+    public ChannelConfigBuilder setMaxStringLength(int maxStringLength) {
+        this.maxStringLength = maxStringLength;
+        return this;
+    }
+
+    public ChannelConfigBuilder setParallelChunkCrypto(boolean parallelChunkCrypto) {
+        this.parallelChunkCrypto = parallelChunkCrypto;
+        return this;
+    }
+
+    public ChannelConfigBuilder setStringCacheSize(int stringCacheSize) {
+        this.stringCacheSize = stringCacheSize;
+        return this;
+    }
+
+    public ChannelConfigBuilder setNodeIdCacheSize(int nodeIdCacheSize) {
+        this.nodeIdCacheSize = nodeIdCacheSize;
+        return this;
+    }
+
+    public ChannelConfigBuilder setEagerExtensionObjects(boolean eagerExtensionObjects) {
+        this.eagerExtensionObjects = eagerExtensionObjects;
+        return this;
+    }
+
+    public ChannelConfig build() {
+        return new ChannelConfig(
+                maxChunkSize,
+                maxChunkCount,
+                maxMessageSize,
+                maxArrayLength,
+                maxStringLength,
+                parallelChunkCrypto,
+                stringCacheSize,
+                nodeIdCacheSize,
+                eagerExtensionObjects
+        );
+    }
+
+}
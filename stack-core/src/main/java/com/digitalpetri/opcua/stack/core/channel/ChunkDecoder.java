@@ -23,11 +23,14 @@ import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.Signature;
 import java.security.SignatureException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
 import javax.crypto.Cipher;
-import javax.crypto.spec.IvParameterSpec;
-import javax.crypto.spec.SecretKeySpec;
+import javax.crypto.Mac;
 
 import com.digitalpetri.opcua.stack.core.StatusCodes;
 import com.digitalpetri.opcua.stack.core.UaException;
@@ -38,7 +41,6 @@ import com.digitalpetri.opcua.stack.core.channel.headers.SymmetricSecurityHeader
 import com.digitalpetri.opcua.stack.core.channel.messages.ErrorMessage;
 import com.digitalpetri.opcua.stack.core.security.SecurityAlgorithm;
 import com.digitalpetri.opcua.stack.core.util.BufferUtil;
-import com.digitalpetri.opcua.stack.core.util.SignatureUtil;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.CompositeByteBuf;
@@ -55,10 +57,42 @@ public class ChunkDecoder {
     private volatile long lastSequenceNumber = -1L;
     private volatile long lastRequestId;
 
+    /**
+     * {@link SymmetricDelegate}s, each with their own crypto instances, for unsecuring chunks in parallel.
+     */
+    private final Queue<SymmetricDelegate> workerDelegates = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The bodies of the chunks of the symmetric message currently being decoded incrementally, or null.
+     */
+    private CompositeByteBuf partialMessage;
+
+    /**
+     * Chunks of the symmetric message currently being decoded incrementally that are held back until the final
+     * chunk arrives so they can be unsecured in parallel.
+     */
+    private final List<ByteBuf> deferredChunks = new ArrayList<>();
+
+    /**
+     * Set by {@link #close()}; chunks are released instead of decoded from then on.
+     */
+    private boolean closed = false;
+
     private final ChannelParameters parameters;
+    private final ForkJoinPool chunkCryptoPool;
 
     public ChunkDecoder(ChannelParameters parameters) {
+        this(parameters, null);
+    }
+
+    /**
+     * @param parameters      the {@link ChannelParameters}.
+     * @param chunkCryptoPool if non-null, the pool that the decryption and verification of multi-chunk symmetric
+     *                        messages is spread across.
+     */
+    public ChunkDecoder(ChannelParameters parameters, ForkJoinPool chunkCryptoPool) {
         this.parameters = parameters;
+        this.chunkCryptoPool = chunkCryptoPool;
     }
 
     public ByteBuf decodeAsymmetric(SecureChannel channel, List<ByteBuf> chunkBuffers) throws UaException {
@@ -69,71 +103,242 @@ public class ChunkDecoder {
         return decode(symmetricDelegate, channel, chunkBuffers);
     }
 
-    private ByteBuf decode(Delegate delegate, SecureChannel channel, List<ByteBuf> chunkBuffers) throws UaException {
-        CompositeByteBuf composite = BufferUtil.compositeBuffer();
+    /**
+     * Decode the next chunk of a symmetric message as it arrives, verifying and decrypting it immediately rather than
+     * once the whole message has been received.
+     * <p>
+     * This decoder takes ownership of {@code chunkBuffer}. If it was the final chunk of the message the assembled
+     * message body is returned and the caller is responsible for releasing it, otherwise null is returned.
+     * <p>
+     * When this decoder was created with a chunk crypto pool, signed or encrypted chunks are instead held until the
+     * final chunk arrives and then unsecured in parallel.
+     *
+     * @param channel     the {@link SecureChannel} the chunk was received on.
+     * @param chunkBuffer the chunk, from the start of its secure message header.
+     * @return the assembled message if {@code chunkBuffer} was the final chunk, otherwise null.
+     * @throws MessageAbortedException if {@code chunkBuffer} was an abort chunk.
+     */
+    public ByteBuf decodeSymmetricChunk(SecureChannel channel, ByteBuf chunkBuffer) throws UaException {
+        if (closed) {
+            chunkBuffer.release();
+            return null;
+        }
 
-        int signatureSize = delegate.getSignatureSize(channel);
-        int cipherTextBlockSize = delegate.getCipherTextBlockSize(channel);
+        char chunkType = (char) chunkBuffer.getByte(3);
+
+        boolean deferred = chunkCryptoPool != null &&
+                (symmetricDelegate.isEncryptionEnabled(channel) || symmetricDelegate.isSigningEnabled(channel));
+
+        if (deferred) {
+            deferredChunks.add(chunkBuffer);
+
+            if (chunkType == 'C') return null;
+
+            List<ByteBuf> chunkBuffers = new ArrayList<>(deferredChunks);
+            deferredChunks.clear();
+
+            try {
+                return decode(symmetricDelegate, channel, chunkBuffers);
+            } catch (UaException | RuntimeException e) {
+                chunkBuffers.forEach(ByteBuf::release);
+                throw e;
+            }
+        }
+
+        if (partialMessage == null) {
+            partialMessage = newMessageComposite();
+        }
+
+        try {
+            chunkBuffer.skipBytes(SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE);
+
+            symmetricDelegate.readSecurityHeader(channel, chunkBuffer);
+
+            int bodyEnd = unsecureChunk(symmetricDelegate, channel, chunkBuffer);
+
+            appendChunkBody(partialMessage, chunkType, chunkBuffer, bodyEnd);
+        } catch (UaException | RuntimeException e) {
+            chunkBuffer.release();
+            discardPartialMessage();
+            throw e;
+        }
+
+        if (chunkType == 'C') return null;
+
+        ByteBuf message = partialMessage.order(ByteOrder.LITTLE_ENDIAN);
+        partialMessage = null;
+
+        return message;
+    }
+
+    /**
+     * Release any chunks of a partially received symmetric message, e.g. because the channel has closed.
+     */
+    public void discardPartialMessage() {
+        if (partialMessage != null) {
+            partialMessage.release();
+            partialMessage = null;
+        }
+
+        deferredChunks.forEach(ByteBuf::release);
+        deferredChunks.clear();
+    }
+
+    /**
+     * Release any chunks of a partially received symmetric message and release, rather than decode, every chunk
+     * passed to {@link #decodeSymmetricChunk(SecureChannel, ByteBuf)} afterwards, e.g. because decoding failed and
+     * the channel is closing with chunks still queued for this decoder.
+     */
+    public void close() {
+        closed = true;
+
+        discardPartialMessage();
+    }
+
+    private ByteBuf decode(Delegate delegate, SecureChannel channel, List<ByteBuf> chunkBuffers) throws UaException {
+        CompositeByteBuf composite = newMessageComposite();
 
         boolean encrypted = delegate.isEncryptionEnabled(channel);
         boolean signed = delegate.isSigningEnabled(channel);
 
-        for (ByteBuf chunkBuffer : chunkBuffers) {
-            char chunkType = (char) chunkBuffer.getByte(3);
+        /*
+         * In parallel mode the security headers are all read up front, capturing the SecuritySecrets each chunk's
+         * token id refers to, and then the chunks are decrypted and verified in parallel. Sequence numbers are
+         * still checked in order below.
+         */
+        boolean parallel = chunkCryptoPool != null &&
+                delegate == symmetricDelegate &&
+                (encrypted || signed) &&
+                chunkBuffers.size() > 1;
 
-            chunkBuffer.skipBytes(SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE);
+        int[] bodyEnds = new int[chunkBuffers.size()];
 
-            delegate.readSecurityHeader(channel, chunkBuffer);
+        if (parallel) {
+            List<ChannelSecurity.SecuritySecrets> chunkSecrets = new ArrayList<>(chunkBuffers.size());
 
-            if (encrypted) {
-                decryptChunk(delegate, channel, chunkBuffer);
-            }
+            for (ByteBuf chunkBuffer : chunkBuffers) {
+                chunkBuffer.skipBytes(SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE);
 
-            int encryptedStart = chunkBuffer.readerIndex();
-            chunkBuffer.readerIndex(0);
+                delegate.readSecurityHeader(channel, chunkBuffer);
 
-            if (signed) {
-                delegate.verifyChunk(channel, chunkBuffer);
+                chunkSecrets.add(((SymmetricDelegate) delegate).getSecuritySecrets());
             }
 
-            int paddingSize = encrypted ? getPaddingSize(cipherTextBlockSize, signatureSize, chunkBuffer) : 0;
-            int bodyEnd = chunkBuffer.readableBytes() - signatureSize - paddingSize;
+            ParallelChunkCrypto.forEachChunk(chunkCryptoPool, chunkBuffers.size(), i -> {
+                SymmetricDelegate worker = acquireWorkerDelegate(chunkSecrets.get(i));
 
-            chunkBuffer.readerIndex(encryptedStart);
+                try {
+                    bodyEnds[i] = unsecureChunk(worker, channel, chunkBuffers.get(i));
+                } finally {
+                    workerDelegates.offer(worker);
+                }
+            });
+        }
 
-            SequenceHeader sequenceHeader = SequenceHeader.decode(chunkBuffer);
-            long sequenceNumber = sequenceHeader.getSequenceNumber();
-            lastRequestId = sequenceHeader.getRequestId();
+        for (int i = 0; i < chunkBuffers.size(); i++) {
+            ByteBuf chunkBuffer = chunkBuffers.get(i);
 
-            if (lastSequenceNumber == -1) {
-                lastSequenceNumber = sequenceNumber;
-            } else {
-                if (lastSequenceNumber + 1 != sequenceNumber) {
-                    String message = String.format("expected sequence number %s but received %s",
-                            lastSequenceNumber + 1, sequenceNumber);
+            char chunkType = (char) chunkBuffer.getByte(3);
 
-                    logger.error(message);
-                    logger.error(ByteBufUtil.hexDump(chunkBuffer, 0, chunkBuffer.writerIndex()));
+            if (!parallel) {
+                chunkBuffer.skipBytes(SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE);
 
-                    throw new UaException(StatusCodes.Bad_SecurityChecksFailed, message);
-                }
+                delegate.readSecurityHeader(channel, chunkBuffer);
 
-                lastSequenceNumber = sequenceNumber;
+                bodyEnds[i] = unsecureChunk(delegate, channel, chunkBuffer);
             }
 
-            ByteBuf bodyBuffer = chunkBuffer.readSlice(bodyEnd - chunkBuffer.readerIndex());
+            appendChunkBody(composite, chunkType, chunkBuffer, bodyEnds[i]);
+        }
+
+        return composite.order(ByteOrder.LITTLE_ENDIAN);
+    }
 
-            if (chunkType == 'A') {
-                ErrorMessage errorMessage = ErrorMessage.decode(bodyBuffer);
+    /**
+     * @return a {@link CompositeByteBuf} that can hold a body per chunk without consolidating, i.e. copying, them.
+     */
+    private CompositeByteBuf newMessageComposite() {
+        return BufferUtil.compositeBuffer(Math.max(parameters.getLocalMaxChunkCount(), 16));
+    }
 
-                throw new MessageAbortedException(errorMessage.getError(), errorMessage.getReason());
+    /**
+     * Check the sequence header of an unsecured chunk and append its body to {@code composite}.
+     */
+    private void appendChunkBody(CompositeByteBuf composite,
+                                 char chunkType,
+                                 ByteBuf chunkBuffer,
+                                 int bodyEnd) throws UaException {
+
+        SequenceHeader sequenceHeader = SequenceHeader.decode(chunkBuffer);
+        long sequenceNumber = sequenceHeader.getSequenceNumber();
+        lastRequestId = sequenceHeader.getRequestId();
+
+        if (lastSequenceNumber == -1) {
+            lastSequenceNumber = sequenceNumber;
+        } else {
+            if (lastSequenceNumber + 1 != sequenceNumber) {
+                String message = String.format("expected sequence number %s but received %s",
+                        lastSequenceNumber + 1, sequenceNumber);
+
+                logger.error(message);
+                logger.error(ByteBufUtil.hexDump(chunkBuffer, 0, chunkBuffer.writerIndex()));
+
+                throw new UaException(StatusCodes.Bad_SecurityChecksFailed, message);
             }
 
-            composite.addComponent(bodyBuffer);
-            composite.writerIndex(composite.writerIndex() + bodyBuffer.readableBytes());
+            lastSequenceNumber = sequenceNumber;
         }
 
-        return composite.order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuf bodyBuffer = chunkBuffer.readSlice(bodyEnd - chunkBuffer.readerIndex());
+
+        if (chunkType == 'A') {
+            ErrorMessage errorMessage = ErrorMessage.decode(bodyBuffer);
+
+            throw new MessageAbortedException(errorMessage.getError(), errorMessage.getReason());
+        }
+
+        composite.addComponent(bodyBuffer);
+        composite.writerIndex(composite.writerIndex() + bodyBuffer.readableBytes());
+    }
+
+    /**
+     * Decrypt and verify a chunk whose security header has been read.
+     *
+     * @return the index the message body ends at. The chunk's reader index is left at the start of the sequence
+     * header.
+     */
+    private int unsecureChunk(Delegate delegate, SecureChannel channel, ByteBuf chunkBuffer) throws UaException {
+        int signatureSize = delegate.getSignatureSize(channel);
+        int cipherTextBlockSize = delegate.getCipherTextBlockSize(channel);
+
+        boolean encrypted = delegate.isEncryptionEnabled(channel);
+
+        if (encrypted) {
+            decryptChunk(delegate, channel, chunkBuffer);
+        }
+
+        int encryptedStart = chunkBuffer.readerIndex();
+        chunkBuffer.readerIndex(0);
+
+        if (delegate.isSigningEnabled(channel)) {
+            delegate.verifyChunk(channel, chunkBuffer);
+        }
+
+        int paddingSize = encrypted ? getPaddingSize(cipherTextBlockSize, signatureSize, chunkBuffer) : 0;
+        int bodyEnd = chunkBuffer.readableBytes() - signatureSize - paddingSize;
+
+        chunkBuffer.readerIndex(encryptedStart);
+
+        return bodyEnd;
+    }
+
+    private SymmetricDelegate acquireWorkerDelegate(ChannelSecurity.SecuritySecrets securitySecrets) {
+        SymmetricDelegate worker = workerDelegates.poll();
+        if (worker == null) worker = new SymmetricDelegate();
+
+        worker.setSecuritySecrets(securitySecrets);
+
+        return worker;
     }
 
     /**
@@ -147,15 +352,7 @@ public class ChunkDecoder {
         int cipherTextBlockSize = delegate.getCipherTextBlockSize(channel);
         int blockCount = chunkBuffer.readableBytes() / cipherTextBlockSize;
 
-        int plainTextBufferSize = cipherTextBlockSize * blockCount;
-
-        ByteBuf plainTextBuffer = BufferUtil.buffer(plainTextBufferSize);
-
-        ByteBuffer plainTextNioBuffer = plainTextBuffer
-                .writerIndex(plainTextBufferSize)
-                .nioBuffer();
-
-        ByteBuffer chunkNioBuffer = chunkBuffer.nioBuffer();
+        int bytesWritten;
 
         try {
             Cipher cipher = delegate.getCipher(channel);
@@ -163,25 +360,30 @@ public class ChunkDecoder {
             assert (chunkBuffer.readableBytes() % cipherTextBlockSize == 0);
 
             if (delegate instanceof AsymmetricDelegate) {
+                /*
+                 * Plain text blocks are smaller than cipher text blocks, so writing the plain text back into the
+                 * chunk always trails reading the cipher text. Cipher is copy-safe for a single block.
+                 */
+                ByteBuffer chunkNioBuffer = chunkBuffer.nioBuffer();
+                ByteBuffer plainTextNioBuffer = chunkBuffer.nioBuffer();
+
                 for (int blockNumber = 0; blockNumber < blockCount; blockNumber++) {
                     chunkNioBuffer.limit(chunkNioBuffer.position() + cipherTextBlockSize);
 
                     cipher.doFinal(chunkNioBuffer, plainTextNioBuffer);
                 }
+
+                bytesWritten = plainTextNioBuffer.position();
             } else {
-                cipher.doFinal(chunkNioBuffer, plainTextNioBuffer);
+                bytesWritten = ((SymmetricDelegate) delegate).decryptInPlace(
+                        cipher, chunkBuffer, chunkBuffer.readerIndex(), blockCount * cipherTextBlockSize);
             }
         } catch (GeneralSecurityException e) {
             throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
         }
 
-        /* Write plainTextBuffer back into the chunk buffer we decrypted from. */
-        plainTextNioBuffer.flip(); // limit = pos, pos = 0
-
-        chunkBuffer.writerIndex(chunkBuffer.readerIndex());
-        chunkBuffer.writeBytes(plainTextNioBuffer);
-
-        plainTextBuffer.release();
+        /* The chunk buffer now ends where the plain text does. */
+        chunkBuffer.writerIndex(chunkBuffer.readerIndex() + bytesWritten);
     }
 
     private int getPaddingSize(int cipherTextBlockSize, int signatureSize, ByteBuf buffer) {
@@ -282,8 +484,18 @@ public class ChunkDecoder {
 
         private final Logger logger = LoggerFactory.getLogger(getClass());
 
+        private final SymmetricCryptoCache cryptoCache = new SymmetricCryptoCache(Cipher.DECRYPT_MODE);
+
         private volatile ChannelSecurity.SecuritySecrets securitySecrets;
 
+        public ChannelSecurity.SecuritySecrets getSecuritySecrets() {
+            return securitySecrets;
+        }
+
+        public void setSecuritySecrets(ChannelSecurity.SecuritySecrets securitySecrets) {
+            this.securitySecrets = securitySecrets;
+        }
+
         @Override
         public void readSecurityHeader(SecureChannel channel, ByteBuf chunkBuffer) throws UaException {
             long receivedTokenId = SymmetricSecurityHeader.decode(chunkBuffer).getTokenId();
@@ -324,21 +536,19 @@ public class ChunkDecoder {
         @Override
         public Cipher getCipher(SecureChannel channel) throws UaException {
             try {
-                String transformation = channel.getSecurityPolicy().getSymmetricEncryptionAlgorithm().getTransformation();
+                SecurityAlgorithm encryptionAlgorithm = channel.getSecurityPolicy().getSymmetricEncryptionAlgorithm();
                 ChannelSecurity.SecretKeys decryptionKeys = channel.getDecryptionKeys(securitySecrets);
 
-                SecretKeySpec keySpec = new SecretKeySpec(decryptionKeys.getEncryptionKey(), "AES");
-                IvParameterSpec ivSpec = new IvParameterSpec(decryptionKeys.getInitializationVector());
-
-                Cipher cipher = Cipher.getInstance(transformation);
-                cipher.init(Cipher.DECRYPT_MODE, keySpec, ivSpec);
-
-                return cipher;
+                return cryptoCache.getCipher(encryptionAlgorithm, decryptionKeys);
             } catch (GeneralSecurityException e) {
                 throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
             }
         }
 
+        public int decryptInPlace(Cipher cipher, ByteBuf buffer, int index, int length) throws GeneralSecurityException {
+            return cryptoCache.doFinalInPlace(cipher, buffer, index, length);
+        }
+
         @Override
         public int getCipherTextBlockSize(SecureChannel channel) {
             return channel.getSymmetricCipherTextBlockSize();
@@ -352,13 +562,22 @@ public class ChunkDecoder {
         @Override
         public void verifyChunk(SecureChannel channel, ByteBuf chunkBuffer) throws UaException {
             SecurityAlgorithm securityAlgorithm = channel.getSecurityPolicy().getSymmetricSignatureAlgorithm();
-            byte[] secretKey = channel.getDecryptionKeys(securitySecrets).getSignatureKey();
+            ChannelSecurity.SecretKeys decryptionKeys = channel.getDecryptionKeys(securitySecrets);
             int signatureSize = channel.getSymmetricSignatureSize();
 
             ByteBuffer chunkNioBuffer = chunkBuffer.nioBuffer(0, chunkBuffer.writerIndex());
             chunkNioBuffer.position(0).limit(chunkBuffer.writerIndex() - signatureSize);
 
-            byte[] signature = SignatureUtil.hmac(securityAlgorithm, secretKey, chunkNioBuffer);
+            byte[] signature;
+
+            try {
+                Mac mac = cryptoCache.getMac(securityAlgorithm, decryptionKeys);
+                mac.update(chunkNioBuffer);
+
+                signature = mac.doFinal();
+            } catch (GeneralSecurityException e) {
+                throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
+            }
 
             byte[] signatureBytes = new byte[signatureSize];
             chunkNioBuffer.limit(chunkNioBuffer.position() + signatureSize);
@@ -17,13 +17,16 @@
 package com.digitalpetri.opcua.stack.core.channel;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.security.GeneralSecurityException;
 import java.security.cert.Certificate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
 import javax.crypto.Cipher;
-import javax.crypto.spec.IvParameterSpec;
-import javax.crypto.spec.SecretKeySpec;
+import javax.crypto.Mac;
 
 import com.digitalpetri.opcua.stack.core.StatusCodes;
 import com.digitalpetri.opcua.stack.core.UaException;
@@ -48,10 +51,26 @@ public class ChunkEncoder {
 
     private volatile long lastRequestId = 1L;
 
+    /**
+     * {@link SymmetricDelegate}s, each with their own crypto instances, for securing chunks in parallel.
+     */
+    private final Queue<SymmetricDelegate> workerDelegates = new ConcurrentLinkedQueue<>();
+
     private final ChannelParameters parameters;
+    private final ForkJoinPool chunkCryptoPool;
 
     public ChunkEncoder(ChannelParameters parameters) {
+        this(parameters, null);
+    }
+
+    /**
+     * @param parameters      the {@link ChannelParameters}.
+     * @param chunkCryptoPool if non-null, the pool that the signing and encryption of multi-chunk symmetric messages
+     *                        is spread across.
+     */
+    public ChunkEncoder(ChannelParameters parameters, ForkJoinPool chunkCryptoPool) {
         this.parameters = parameters;
+        this.chunkCryptoPool = chunkCryptoPool;
     }
 
     public List<ByteBuf> encodeAsymmetric(SecureChannel channel,
@@ -79,6 +98,7 @@ public class ChunkEncoder {
         List<ByteBuf> chunks = new ArrayList<>();
 
         boolean encrypted = delegate.isEncryptionEnabled(channel);
+        boolean signed = delegate.isSigningEnabled(channel);
 
         int securityHeaderSize = delegate.getSecurityHeaderSize(channel);
         int cipherTextBlockSize = delegate.getCipherTextBlockSize(channel);
@@ -92,6 +112,24 @@ public class ChunkEncoder {
         int maxBlockCount = (maxChunkSize - headerSizes - signatureSize - paddingOverhead) / cipherTextBlockSize;
         int maxBodySize = (plainTextBlockSize * maxBlockCount - SequenceHeader.SEQUENCE_HEADER_SIZE);
 
+        /*
+         * In parallel mode every chunk is laid out, in order and with its sequence number, before any of them are
+         * signed or encrypted. The SecuritySecrets in effect when each chunk's security header was written are
+         * captured so the chunk is secured with the keys its token id refers to.
+         */
+        boolean parallel = chunkCryptoPool != null &&
+                delegate == symmetricDelegate &&
+                (encrypted || signed) &&
+                messageBuffer.readableBytes() > maxBodySize;
+
+        List<ChannelSecurity.SecuritySecrets> chunkSecrets = parallel ? new ArrayList<>() : null;
+
+        /*
+         * When the chunk body doesn't need to be encrypted it's never copied: each chunk is a composite of a small
+         * header buffer, a retained slice of the message buffer, and, if signed, the signature.
+         */
+        boolean zeroCopy = delegate == symmetricDelegate && !encrypted;
+
         while (messageBuffer.readableBytes() > 0) {
             int bodySize = Math.min(messageBuffer.readableBytes(), maxBodySize);
 
@@ -105,7 +143,9 @@ public class ChunkEncoder {
             int chunkSize = SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE + securityHeaderSize +
                     (plainTextContentSize / plainTextBlockSize) * cipherTextBlockSize;
 
-            ByteBuf chunkBuffer = BufferUtil.buffer(chunkSize);
+            ByteBuf chunkBuffer = zeroCopy ?
+                    BufferUtil.buffer(headerSizes + SequenceHeader.SEQUENCE_HEADER_SIZE) :
+                    BufferUtil.buffer(chunkSize);
 
             /* Message Header */
             SecureMessageHeader messageHeader = new SecureMessageHeader(
@@ -129,64 +169,125 @@ public class ChunkEncoder {
             SequenceHeader.encode(sequenceHeader, chunkBuffer);
 
             /* Message Body */
-            chunkBuffer.writeBytes(messageBuffer, bodySize);
+            if (zeroCopy) {
+                ByteBuf headerBuffer = chunkBuffer;
+                ByteBuf bodyBuffer = messageBuffer.readSlice(bodySize).retain();
+
+                chunkBuffer = BufferUtil.compositeBuffer()
+                        .addComponent(headerBuffer)
+                        .addComponent(bodyBuffer)
+                        .writerIndex(headerBuffer.readableBytes() + bodySize)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+            } else {
+                chunkBuffer.writeBytes(messageBuffer, bodySize);
+            }
 
-            /* Padding and Signature */
+            /* Padding */
             if (encrypted) {
                 writePadding(cipherTextBlockSize, paddingSize, chunkBuffer);
             }
 
-            if (delegate.isSigningEnabled(channel)) {
-                ByteBuffer chunkNioBuffer = chunkBuffer.nioBuffer(0, chunkBuffer.writerIndex());
-
-                byte[] signature = delegate.signChunk(channel, chunkNioBuffer);
-
-                chunkBuffer.writeBytes(signature);
+            if (parallel) {
+                chunkSecrets.add(((SymmetricDelegate) delegate).getSecuritySecrets());
+            } else {
+                secureChunk(delegate, channel, chunkBuffer);
             }
 
-            /* Encryption */
-            if (encrypted) {
-                chunkBuffer.readerIndex(SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE + securityHeaderSize);
+            chunks.add(chunkBuffer);
+        }
 
-                assert (chunkBuffer.readableBytes() % plainTextBlockSize == 0);
+        if (parallel) {
+            ParallelChunkCrypto.forEachChunk(chunkCryptoPool, chunks.size(), i -> {
+                ByteBuf chunkBuffer = chunks.get(i);
+
+                SymmetricDelegate worker = acquireWorkerDelegate(chunkSecrets.get(i));
 
                 try {
-                    int blockCount = chunkBuffer.readableBytes() / plainTextBlockSize;
+                    secureChunk(worker, channel, chunkBuffer);
+                } finally {
+                    workerDelegates.offer(worker);
+                }
+            });
+        }
+
+        lastRequestId = requestId;
+
+        return chunks;
+    }
+
+    /**
+     * Sign and then encrypt a chunk that has had everything up to and including its padding written. When this
+     * returns the chunk is readable from the start of its message header to the end of its cipher text.
+     */
+    private void secureChunk(Delegate delegate, SecureChannel channel, ByteBuf chunkBuffer) throws UaException {
+
+        int securityHeaderSize = delegate.getSecurityHeaderSize(channel);
+        int cipherTextBlockSize = delegate.getCipherTextBlockSize(channel);
+        int plainTextBlockSize = delegate.getPlainTextBlockSize(channel);
+
+        /* Signature */
+        if (delegate.isSigningEnabled(channel)) {
+            ByteBuffer[] chunkNioBuffers = chunkBuffer.nioBuffers(0, chunkBuffer.writerIndex());
+
+            byte[] signature = delegate.signChunk(channel, chunkNioBuffers);
+
+            chunkBuffer.writeBytes(signature);
+        }
+
+        /* Encryption */
+        if (delegate.isEncryptionEnabled(channel)) {
+            chunkBuffer.readerIndex(SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE + securityHeaderSize);
 
+            assert (chunkBuffer.readableBytes() % plainTextBlockSize == 0);
+
+            try {
+                int blockCount = chunkBuffer.readableBytes() / plainTextBlockSize;
+
+                Cipher cipher = delegate.getAndInitializeCipher(channel);
+
+                if (delegate instanceof AsymmetricDelegate) {
                     ByteBuffer chunkNioBuffer = chunkBuffer.nioBuffer(chunkBuffer.readerIndex(), blockCount * cipherTextBlockSize);
                     ByteBuf copyBuffer = chunkBuffer.copy();
                     ByteBuffer plainTextNioBuffer = copyBuffer.nioBuffer();
 
-                    Cipher cipher = delegate.getAndInitializeCipher(channel);
+                    for (int blockNumber = 0; blockNumber < blockCount; blockNumber++) {
+                        int position = blockNumber * plainTextBlockSize;
+                        int limit = (blockNumber + 1) * plainTextBlockSize;
+                        plainTextNioBuffer.position(position).limit(limit);
 
-                    if (delegate instanceof AsymmetricDelegate) {
-                        for (int blockNumber = 0; blockNumber < blockCount; blockNumber++) {
-                            int position = blockNumber * plainTextBlockSize;
-                            int limit = (blockNumber + 1) * plainTextBlockSize;
-                            plainTextNioBuffer.position(position).limit(limit);
+                        int bytesWritten = cipher.doFinal(plainTextNioBuffer, chunkNioBuffer);
 
-                            int bytesWritten = cipher.doFinal(plainTextNioBuffer, chunkNioBuffer);
-
-                            assert (bytesWritten == cipherTextBlockSize);
-                        }
-                    } else {
-                        cipher.doFinal(plainTextNioBuffer, chunkNioBuffer);
+                        assert (bytesWritten == cipherTextBlockSize);
                     }
 
                     copyBuffer.release();
-                } catch (GeneralSecurityException e) {
-                    throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
+                } else {
+                    /*
+                     * Symmetric plain text and cipher text blocks are the same size, so the chunk is
+                     * encrypted in place rather than from a copy.
+                     */
+                    int bytesWritten = ((SymmetricDelegate) delegate).encryptInPlace(
+                            cipher, chunkBuffer, chunkBuffer.readerIndex(), blockCount * cipherTextBlockSize);
+
+                    assert (bytesWritten == blockCount * cipherTextBlockSize);
                 }
+
+                chunkBuffer.writerIndex(chunkBuffer.readerIndex() + blockCount * cipherTextBlockSize);
+            } catch (GeneralSecurityException e) {
+                throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
             }
+        }
 
-            chunkBuffer.readerIndex(0).writerIndex(chunkSize);
+        chunkBuffer.readerIndex(0);
+    }
 
-            chunks.add(chunkBuffer);
-        }
+    private SymmetricDelegate acquireWorkerDelegate(ChannelSecurity.SecuritySecrets securitySecrets) {
+        SymmetricDelegate worker = workerDelegates.poll();
+        if (worker == null) worker = new SymmetricDelegate();
 
-        lastRequestId = requestId;
+        worker.setSecuritySecrets(securitySecrets);
 
-        return chunks;
+        return worker;
     }
 
     public long getLastRequestId() {
@@ -213,7 +314,7 @@ public class ChunkEncoder {
     }
 
     private static interface Delegate {
-        byte[] signChunk(SecureChannel channel, ByteBuffer chunkNioBuffer) throws UaException;
+        byte[] signChunk(SecureChannel channel, ByteBuffer... chunkNioBuffers) throws UaException;
 
         void encodeSecurityHeader(SecureChannel channel, ByteBuf buffer) throws UaException;
 
@@ -236,11 +337,11 @@ public class ChunkEncoder {
     private static class AsymmetricDelegate implements Delegate {
 
         @Override
-        public byte[] signChunk(SecureChannel channel, ByteBuffer chunkNioBuffer) throws UaException {
+        public byte[] signChunk(SecureChannel channel, ByteBuffer... chunkNioBuffers) throws UaException {
             return SignatureUtil.sign(
                     channel.getSecurityPolicy().getAsymmetricSignatureAlgorithm(),
                     channel.getKeyPair().getPrivate(),
-                    chunkNioBuffer
+                    chunkNioBuffers
             );
         }
 
@@ -311,8 +412,18 @@ public class ChunkEncoder {
 
     private static class SymmetricDelegate implements Delegate {
 
+        private final SymmetricCryptoCache cryptoCache = new SymmetricCryptoCache(Cipher.ENCRYPT_MODE);
+
         private volatile ChannelSecurity.SecuritySecrets securitySecrets;
 
+        public ChannelSecurity.SecuritySecrets getSecuritySecrets() {
+            return securitySecrets;
+        }
+
+        public void setSecuritySecrets(ChannelSecurity.SecuritySecrets securitySecrets) {
+            this.securitySecrets = securitySecrets;
+        }
+
         @Override
         public void encodeSecurityHeader(SecureChannel channel, ByteBuf buffer) {
             ChannelSecurity channelSecurity = channel.getChannelSecurity();
@@ -324,28 +435,29 @@ public class ChunkEncoder {
         }
 
         @Override
-        public byte[] signChunk(SecureChannel channel, ByteBuffer chunkNioBuffer) throws UaException {
+        public byte[] signChunk(SecureChannel channel, ByteBuffer... chunkNioBuffers) throws UaException {
             SecurityAlgorithm signatureAlgorithm = channel.getSecurityPolicy().getSymmetricSignatureAlgorithm();
-            byte[] signatureKey = channel.getEncryptionKeys(securitySecrets).getSignatureKey();
+            ChannelSecurity.SecretKeys secretKeys = channel.getEncryptionKeys(securitySecrets);
 
-            return SignatureUtil.hmac(
-                    signatureAlgorithm,
-                    signatureKey,
-                    chunkNioBuffer
-            );
+            try {
+                Mac mac = cryptoCache.getMac(signatureAlgorithm, secretKeys);
+                for (ByteBuffer chunkNioBuffer : chunkNioBuffers) {
+                    mac.update(chunkNioBuffer);
+                }
+
+                return mac.doFinal();
+            } catch (GeneralSecurityException e) {
+                throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
+            }
         }
 
         @Override
         public Cipher getAndInitializeCipher(SecureChannel channel) throws UaException {
             try {
-                String transformation = channel.getSecurityPolicy().getSymmetricEncryptionAlgorithm().getTransformation();
+                SecurityAlgorithm encryptionAlgorithm = channel.getSecurityPolicy().getSymmetricEncryptionAlgorithm();
                 ChannelSecurity.SecretKeys secretKeys = channel.getEncryptionKeys(securitySecrets);
 
-                SecretKeySpec keySpec = new SecretKeySpec(secretKeys.getEncryptionKey(), "AES");
-                IvParameterSpec ivSpec = new IvParameterSpec(secretKeys.getInitializationVector());
-
-                Cipher cipher = Cipher.getInstance(transformation);
-                cipher.init(Cipher.ENCRYPT_MODE, keySpec, ivSpec);
+                Cipher cipher = cryptoCache.getCipher(encryptionAlgorithm, secretKeys);
 
                 assert (cipher.getBlockSize() == channel.getSymmetricCipherTextBlockSize());
 
@@ -355,6 +467,10 @@ public class ChunkEncoder {
             }
         }
 
+        public int encryptInPlace(Cipher cipher, ByteBuf buffer, int index, int length) throws GeneralSecurityException {
+            return cryptoCache.doFinalInPlace(cipher, buffer, index, length);
+        }
+
         @Override
         public int getSecurityHeaderSize(SecureChannel channel) {
             return SymmetricSecurityHeader.SYMMETRIC_SECURITY_HEADER_SIZE;
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.channel;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+
+/**
+ * Hands encoded chunks to a channel's event loop in batches.
+ * <p>
+ * Chunks queued while a write is already pending are picked up by that same write, so a burst of messages
+ * encoded on the serialization thread costs one event loop hop and one flush rather than one of each per message.
+ */
+public class ChunkWriteQueue {
+
+    private final Queue<ByteBuf> pendingChunks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean writeScheduled = new AtomicBoolean(false);
+
+    private final ChannelHandlerContext ctx;
+    private final Runnable writeAndFlush;
+
+    public ChunkWriteQueue(ChannelHandlerContext ctx) {
+        this.ctx = ctx;
+        this.writeAndFlush = this::writeAndFlush;
+    }
+
+    /**
+     * Queue the chunks of an encoded message to be written and flushed on the event loop.
+     * <p>
+     * Chunks must be queued from a single thread, e.g. the encoding thread of a {@link SerializationQueue}, for them
+     * to be written in order.
+     *
+     * @param chunks the chunks of an encoded message.
+     */
+    public void write(List<ByteBuf> chunks) {
+        pendingChunks.addAll(chunks);
+
+        if (writeScheduled.compareAndSet(false, true)) {
+            ctx.executor().execute(writeAndFlush);
+        }
+    }
+
+    private void writeAndFlush() {
+        writeScheduled.set(false);
+
+        ByteBuf chunk;
+        while ((chunk = pendingChunks.poll()) != null) {
+            ctx.write(chunk, ctx.voidPromise());
+        }
+
+        ctx.flush();
+    }
+
+}
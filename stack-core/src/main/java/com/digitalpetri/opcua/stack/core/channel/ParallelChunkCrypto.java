@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.channel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.digitalpetri.opcua.stack.core.StatusCodes;
+import com.digitalpetri.opcua.stack.core.UaException;
+
+/**
+ * Fans per-chunk crypto work for a single message out across a {@link ForkJoinPool}.
+ */
+final class ParallelChunkCrypto {
+
+    private ParallelChunkCrypto() {}
+
+    /**
+     * Run {@code task} for every chunk index in {@code [0, chunkCount)}. The first chunk is processed on the calling
+     * thread while the rest are processed in {@code pool}.
+     * <p>
+     * Returns only once every chunk has been processed, even if some of them failed, so the caller can safely
+     * release the chunk buffers afterwards.
+     *
+     * @param pool       the {@link ForkJoinPool} to run chunk tasks in.
+     * @param chunkCount the number of chunks in the message.
+     * @param task       the work to do for a single chunk.
+     * @throws UaException the failure of the lowest numbered chunk that failed, if any.
+     */
+    static void forEachChunk(ForkJoinPool pool, int chunkCount, ChunkTask task) throws UaException {
+        List<ForkJoinTask<Void>> tasks = new ArrayList<>(chunkCount - 1);
+
+        for (int i = 1; i < chunkCount; i++) {
+            final int chunkIndex = i;
+
+            tasks.add(pool.submit(() -> {
+                task.run(chunkIndex);
+                return null;
+            }));
+        }
+
+        UaException failure = null;
+
+        try {
+            task.run(0);
+        } catch (UaException e) {
+            failure = e;
+        }
+
+        for (ForkJoinTask<Void> t : tasks) {
+            t.quietlyJoin();
+
+            if (failure == null && t.isCompletedAbnormally()) {
+                failure = toUaException(t.getException());
+            }
+        }
+
+        if (failure != null) throw failure;
+    }
+
+    private static UaException toUaException(Throwable t) {
+        Throwable cause = t;
+
+        while (cause != null) {
+            if (cause instanceof UaException) return (UaException) cause;
+
+            cause = cause.getCause();
+        }
+
+        return new UaException(StatusCodes.Bad_InternalError, t);
+    }
+
+    @FunctionalInterface
+    interface ChunkTask {
+        void run(int chunkIndex) throws UaException;
+    }
+
+}
@@ -17,8 +17,10 @@
 package com.digitalpetri.opcua.stack.core.channel;
 
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiConsumer;
 
+import com.digitalpetri.opcua.stack.core.Stack;
 import com.digitalpetri.opcua.stack.core.serialization.binary.BinaryDecoder;
 import com.digitalpetri.opcua.stack.core.serialization.binary.BinaryEncoder;
 import com.digitalpetri.opcua.stack.core.util.ExecutionQueue;
@@ -41,13 +43,37 @@ public class SerializationQueue {
                               int maxArrayLength,
                               int maxStringLength) {
 
+        this(executor, parameters, maxArrayLength, maxStringLength, null, 0, 0, false);
+    }
+
+    public SerializationQueue(ExecutorService executor,
+                              ChannelParameters parameters,
+                              ChannelConfig config) {
+
+        this(executor, parameters, config.getMaxArrayLength(), config.getMaxStringLength(),
+                config.isParallelChunkCrypto() ? Stack.sharedChunkCryptoPool() : null,
+                config.getStringCacheSize(),
+                config.getNodeIdCacheSize(),
+                config.isEagerExtensionObjects());
+    }
+
+    private SerializationQueue(ExecutorService executor,
+                               ChannelParameters parameters,
+                               int maxArrayLength,
+                               int maxStringLength,
+                               ForkJoinPool chunkCryptoPool,
+                               int stringCacheSize,
+                               int nodeIdCacheSize,
+                               boolean eagerExtensionObjects) {
+
         this.parameters = parameters;
 
         binaryEncoder = new BinaryEncoder(maxArrayLength, maxStringLength);
-        binaryDecoder = new BinaryDecoder(maxArrayLength, maxStringLength);
+        binaryDecoder = new BinaryDecoder(maxArrayLength, maxStringLength, stringCacheSize, nodeIdCacheSize)
+                .setEagerExtensionObjects(eagerExtensionObjects);
 
-        chunkEncoder = new ChunkEncoder(parameters);
-        chunkDecoder = new ChunkDecoder(parameters);
+        chunkEncoder = new ChunkEncoder(parameters, chunkCryptoPool);
+        chunkDecoder = new ChunkDecoder(parameters, chunkCryptoPool);
 
         encodingQueue = new ExecutionQueue(executor);
         decodingQueue = new ExecutionQueue(executor);
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2016 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.channel;
+
+import java.security.GeneralSecurityException;
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.digitalpetri.opcua.stack.core.security.SecurityAlgorithm;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Holds the {@link Cipher} and {@link Mac} used for symmetric chunk crypto in one direction of a secure channel.
+ * <p>
+ * Instances are obtained from the provider once and re-initialized when the {@link ChannelSecurity.SecretKeys} they
+ * are asked to use change, i.e. when the {@link ChannelSecurity} is renewed.
+ * <p>
+ * Not thread safe; chunk encoding and decoding for a channel is serialized by its {@link SerializationQueue}.
+ */
+class SymmetricCryptoCache {
+
+    /**
+     * Size of the scratch arrays used by {@link #doFinalInPlace(Cipher, ByteBuf, int, int)}; a multiple of every
+     * symmetric cipher block size.
+     */
+    private static final int SCRATCH_SIZE = 4096;
+
+    private final byte[] inputScratch = new byte[SCRATCH_SIZE];
+    private final byte[] outputScratch = new byte[SCRATCH_SIZE];
+
+    private final int cipherMode;
+
+    private SecurityAlgorithm cipherAlgorithm;
+    private Cipher cipher;
+
+    private ChannelSecurity.SecretKeys cipherKeys;
+    private SecretKeySpec cipherKeySpec;
+    private IvParameterSpec cipherIvSpec;
+
+    private SecurityAlgorithm macAlgorithm;
+    private Mac mac;
+
+    private ChannelSecurity.SecretKeys macKeys;
+
+    /**
+     * @param cipherMode the mode ciphers are initialized with; {@link Cipher#ENCRYPT_MODE} or
+     *                   {@link Cipher#DECRYPT_MODE}.
+     */
+    SymmetricCryptoCache(int cipherMode) {
+        this.cipherMode = cipherMode;
+    }
+
+    /**
+     * Get a {@link Cipher} initialized with the encryption key and initialization vector from {@code secretKeys}.
+     * <p>
+     * The cipher is re-initialized on every call so a failed operation can't leave it in an unusable state.
+     *
+     * @param algorithm  the symmetric encryption {@link SecurityAlgorithm}.
+     * @param secretKeys the {@link ChannelSecurity.SecretKeys} to initialize with.
+     * @return an initialized {@link Cipher}.
+     */
+    Cipher getCipher(SecurityAlgorithm algorithm, ChannelSecurity.SecretKeys secretKeys) throws GeneralSecurityException {
+        if (cipher == null || algorithm != cipherAlgorithm) {
+            cipher = Cipher.getInstance(algorithm.getTransformation());
+            cipherAlgorithm = algorithm;
+        }
+
+        if (secretKeys != cipherKeys) {
+            cipherKeySpec = new SecretKeySpec(secretKeys.getEncryptionKey(), "AES");
+            cipherIvSpec = new IvParameterSpec(secretKeys.getInitializationVector());
+            cipherKeys = secretKeys;
+        }
+
+        cipher.init(cipherMode, cipherKeySpec, cipherIvSpec);
+
+        return cipher;
+    }
+
+    /**
+     * Get a {@link Mac} initialized with the signature key from {@code secretKeys}.
+     * <p>
+     * The Mac is only re-initialized when the keys or algorithm change; otherwise it is just reset.
+     *
+     * @param algorithm  the symmetric signature {@link SecurityAlgorithm}.
+     * @param secretKeys the {@link ChannelSecurity.SecretKeys} to initialize with.
+     * @return an initialized {@link Mac}.
+     */
+    Mac getMac(SecurityAlgorithm algorithm, ChannelSecurity.SecretKeys secretKeys) throws GeneralSecurityException {
+        if (mac == null || algorithm != macAlgorithm) {
+            mac = Mac.getInstance(algorithm.getTransformation());
+            macAlgorithm = algorithm;
+            macKeys = null;
+        }
+
+        if (secretKeys != macKeys) {
+            mac.init(new SecretKeySpec(secretKeys.getSignatureKey(), algorithm.getTransformation()));
+            macKeys = secretKeys;
+        } else {
+            mac.reset();
+        }
+
+        return mac;
+    }
+
+    /**
+     * Run {@code cipher} over {@code length} bytes of {@code buffer} starting at {@code index}, writing the output
+     * back over the input.
+     * <p>
+     * The JCE copies any input that overlaps its output, so the region is instead streamed through
+     * {@link Cipher#update(byte[], int, int, byte[], int)} a window at a time using two reusable scratch arrays.
+     *
+     * @param cipher the initialized {@link Cipher}; output must be the same length as input.
+     * @param buffer the buffer holding the data.
+     * @param index  the index of the first byte to process.
+     * @param length the number of bytes to process.
+     * @return the number of bytes written back into {@code buffer}.
+     */
+    int doFinalInPlace(Cipher cipher, ByteBuf buffer, int index, int length) throws GeneralSecurityException {
+        int readIndex = index;
+        int writeIndex = index;
+        int remaining = length;
+
+        while (remaining > 0) {
+            int windowSize = Math.min(remaining, SCRATCH_SIZE);
+
+            buffer.getBytes(readIndex, inputScratch, 0, windowSize);
+            int bytesWritten = cipher.update(inputScratch, 0, windowSize, outputScratch, 0);
+            buffer.setBytes(writeIndex, outputScratch, 0, bytesWritten);
+
+            readIndex += windowSize;
+            writeIndex += bytesWritten;
+            remaining -= windowSize;
+        }
+
+        int bytesWritten = cipher.doFinal(outputScratch, 0);
+        buffer.setBytes(writeIndex, outputScratch, 0, bytesWritten);
+        writeIndex += bytesWritten;
+
+        return writeIndex - index;
+    }
+
+}
@@ -16,24 +16,29 @@
 
 package com.digitalpetri.opcua.stack.core.serialization;
 
-import java.io.IOException;
 import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nullable;
 
 import com.digitalpetri.opcua.stack.core.Stack;
 import com.digitalpetri.opcua.stack.core.StatusCodes;
 import com.digitalpetri.opcua.stack.core.UaSerializationException;
 import com.digitalpetri.opcua.stack.core.types.builtin.NodeId;
-import com.google.common.collect.ImmutableSet;
+import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UInteger;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
-import com.google.common.reflect.ClassPath;
-import com.google.common.reflect.ClassPath.ClassInfo;
-import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class DelegateRegistry {
 
+    /**
+     * System property that, if "true", stops the generated types from being registered up front. Instead, each type
+     * is loaded and registered the first time it is looked up, by class or by encoding id.
+     */
+    public static final String LAZY_REGISTRATION_PROPERTY = DelegateRegistry.class.getName() + ".lazyRegistration";
+
+    private static final boolean LAZY_REGISTRATION = isLazyRegistration();
+
     private static final Map<Class<?>, EncoderDelegate<?>> encodersByClass = Maps.newConcurrentMap();
 
     private static final Map<NodeId, EncoderDelegate<?>> encodersById = Maps.newConcurrentMap();
@@ -42,6 +47,19 @@ public class DelegateRegistry {
 
     private static final Map<NodeId, DecoderDelegate<?>> decodersById = Maps.newConcurrentMap();
 
+    /**
+     * Numeric namespace 0 encoding ids below this limit, which covers every id in
+     * {@link com.digitalpetri.opcua.stack.core.Identifiers}, are also indexed in {@link #decodersByNs0Id}.
+     */
+    static final int NS0_ID_LIMIT = 1 << 14;
+
+    /**
+     * Decoders by numeric namespace 0 encoding id, so that decoding a message or ExtensionObject needs only an array
+     * load instead of a {@link NodeId} hash lookup. Other encoding ids are only in {@link #decodersById}.
+     */
+    private static final AtomicReferenceArray<DecoderDelegate<?>> decodersByNs0Id =
+            new AtomicReferenceArray<>(NS0_ID_LIMIT);
+
     public static <T> void registerEncoder(EncoderDelegate<T> delegate, Class<T> clazz, NodeId... ids) {
         encodersByClass.put(clazz, delegate);
 
@@ -54,63 +72,74 @@ public class DelegateRegistry {
         decodersByClass.put(clazz, delegate);
 
         if (ids != null) {
-            Arrays.stream(ids).forEach(id -> decodersById.put(id, delegate));
+            Arrays.stream(ids).forEach(id -> {
+                decodersById.put(id, delegate);
+
+                int index = ns0Index(id);
+                if (index >= 0) decodersByNs0Id.set(index, delegate);
+            });
         }
     }
 
-    @SuppressWarnings("unchecked")
     public static <T> EncoderDelegate<T> getEncoder(Object t) throws UaSerializationException {
-        try {
-            return (EncoderDelegate<T>) encodersByClass.get(t.getClass());
-        } catch (NullPointerException e) {
-            throw new UaSerializationException(StatusCodes.Bad_EncodingError,
-                    "no encoder registered for class=" + t);
-        }
+        return getEncoder(t.getClass());
     }
 
     @SuppressWarnings("unchecked")
     public static <T> EncoderDelegate<T> getEncoder(Class<?> clazz) throws UaSerializationException {
-        try {
-            return (EncoderDelegate<T>) encodersByClass.get(clazz);
-        } catch (NullPointerException e) {
+        EncoderDelegate<T> encoder = (EncoderDelegate<T>) encodersByClass.get(clazz);
+
+        if (encoder == null && initialize(clazz.getName(), clazz.getClassLoader())) {
+            encoder = (EncoderDelegate<T>) encodersByClass.get(clazz);
+        }
+
+        if (encoder == null) {
             throw new UaSerializationException(StatusCodes.Bad_EncodingError,
                     "no encoder registered for class=" + clazz);
         }
+
+        return encoder;
     }
 
     @SuppressWarnings("unchecked")
     public static <T> EncoderDelegate<T> getEncoder(NodeId encodingId) throws UaSerializationException {
-        try {
-            return (EncoderDelegate<T>) encodersById.get(encodingId);
-        } catch (NullPointerException e) {
+        EncoderDelegate<T> encoder = (EncoderDelegate<T>) encodersById.get(encodingId);
+
+        if (encoder == null && initialize(encodingId)) {
+            encoder = (EncoderDelegate<T>) encodersById.get(encodingId);
+        }
+
+        if (encoder == null) {
             throw new UaSerializationException(StatusCodes.Bad_EncodingError,
                     "no encoder registered for encodingId=" + encodingId);
         }
+
+        return encoder;
     }
 
     @SuppressWarnings("unchecked")
     public static <T> DecoderDelegate<T> getDecoder(T t) throws UaSerializationException {
-        try {
-            return (DecoderDelegate<T>) decodersByClass.get(t.getClass());
-        } catch (NullPointerException e) {
-            throw new UaSerializationException(StatusCodes.Bad_DecodingError,
-                    "no decoder registered for class=" + t);
-        }
+        return getDecoder((Class<T>) t.getClass());
     }
 
     @SuppressWarnings("unchecked")
     public static <T> DecoderDelegate<T> getDecoder(Class<T> clazz) throws UaSerializationException {
-        try {
-            return (DecoderDelegate<T>) decodersByClass.get(clazz);
-        } catch (NullPointerException e) {
+        DecoderDelegate<T> decoder = (DecoderDelegate<T>) decodersByClass.get(clazz);
+
+        if (decoder == null && initialize(clazz.getName(), clazz.getClassLoader())) {
+            decoder = (DecoderDelegate<T>) decodersByClass.get(clazz);
+        }
+
+        if (decoder == null) {
             throw new UaSerializationException(StatusCodes.Bad_DecodingError,
                     "no decoder registered for class=" + clazz);
         }
+
+        return decoder;
     }
 
-    @SuppressWarnings("unchecked")
     public static <T> DecoderDelegate<T> getDecoder(NodeId encodingId) {
-        DecoderDelegate<T> decoder = (DecoderDelegate<T>) decodersById.get(encodingId);
+        DecoderDelegate<T> decoder = lookupDecoder(encodingId);
 
         if (decoder == null) {
             throw new UaSerializationException(StatusCodes.Bad_DecodingError,
@@ -120,49 +149,101 @@ public class DelegateRegistry {
         return decoder;
     }
 
+    /**
+     * @return the decoder registered for {@code encodingId}, or {@code null} if there is none.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public static <T> DecoderDelegate<T> lookupDecoder(NodeId encodingId) {
+        DecoderDelegate<T> decoder = (DecoderDelegate<T>) decoderById(encodingId);
+
+        if (decoder == null && initialize(encodingId)) {
+            decoder = (DecoderDelegate<T>) decoderById(encodingId);
+        }
+
+        return decoder;
+    }
+
+    private static DecoderDelegate<?> decoderById(NodeId encodingId) {
+        int index = ns0Index(encodingId);
+
+        return index >= 0 ? decodersByNs0Id.get(index) : decodersById.get(encodingId);
+    }
+
+    /**
+     * @return the index of {@code id} in {@link #decodersByNs0Id}, or -1 if it is not a numeric namespace 0 id below
+     * {@link #NS0_ID_LIMIT}.
+     */
+    private static int ns0Index(NodeId id) {
+        if (id == null || id.getNamespaceIndex().intValue() != 0) return -1;
+
+        Object identifier = id.getIdentifier();
+
+        if (identifier instanceof UInteger) {
+            long value = ((UInteger) identifier).longValue();
+
+            return value < NS0_ID_LIMIT ? (int) value : -1;
+        }
+
+        return -1;
+    }
+
     static {
         /*
-         * Reflect-o-magically find all generated structured and enumerated types and force their static initialization
-         * blocks to run, registering their encode/decode methods with the delegate registry.
+         * Unless registration is lazy, force the static initialization blocks of the generated structured and
+         * enumerated types to run, registering their encode/decode methods with the delegate registry. The types are
+         * listed in TypeRegistrations rather than found by scanning the classpath.
          */
-        Logger logger = LoggerFactory.getLogger(DelegateRegistry.class);
+        if (!LAZY_REGISTRATION) {
+            ClassLoader classLoader = classLoader();
 
-        ClassLoader classLoader = Stack.getCustomClassLoader()
-                .orElse(DelegateRegistry.class.getClassLoader());
+            for (String name : TypeRegistrations.ENUMERATED_TYPES) {
+                initialize(TypeRegistrations.ENUMERATED_PACKAGE + "." + name, classLoader);
+            }
 
-        try {
-            loadGeneratedClasses(classLoader);
-        } catch (Exception e1) {
-            // Temporarily set the thread context ClassLoader to our
-            // ClassLoader and try loading the classes one more time.
-
-            Thread thread = Thread.currentThread();
-            ClassLoader contextClassLoader = thread.getContextClassLoader();
-
-            thread.setContextClassLoader(classLoader);
-
-            try {
-                loadGeneratedClasses(classLoader);
-            } catch (Exception e2) {
-                logger.error("Error loading generated classes.", e2);
-            } finally {
-                thread.setContextClassLoader(contextClassLoader);
+            for (String name : TypeRegistrations.STRUCTURED_TYPES) {
+                initialize(TypeRegistrations.STRUCTURED_PACKAGE + "." + name, classLoader);
             }
         }
     }
 
-    private static void loadGeneratedClasses(ClassLoader classLoader) throws IOException, ClassNotFoundException {
-        ClassPath classPath = ClassPath.from(classLoader);
+    /**
+     * Initialize the generated structured type with {@code encodingId}, if there is one, so it registers itself.
+     * <p>
+     * Only lazy registration needs this; otherwise every generated type registered itself up front, so a miss is an
+     * unknown encoding id and not worth a search of {@link TypeRegistrations}.
+     *
+     * @return {@code true} if a type was found and initialized.
+     */
+    private static boolean initialize(NodeId encodingId) {
+        if (!LAZY_REGISTRATION) return false;
+
+        String className = TypeRegistrations.structuredTypeName(encodingId);
+
+        return className != null && initialize(className, classLoader());
+    }
 
-        ImmutableSet<ClassInfo> structures =
-                classPath.getTopLevelClasses("com.digitalpetri.opcua.stack.core.types.structured");
+    private static boolean initialize(String className, ClassLoader classLoader) {
+        try {
+            Class.forName(className, true, classLoader);
+            return true;
+        } catch (ClassNotFoundException e) {
+            LoggerFactory.getLogger(DelegateRegistry.class)
+                    .error("Error initializing generated class: {}", className, e);
+            return false;
+        }
+    }
 
-        ImmutableSet<ClassInfo> enumerations =
-                classPath.getTopLevelClasses("com.digitalpetri.opcua.stack.core.types.enumerated");
+    private static ClassLoader classLoader() {
+        return Stack.getCustomClassLoader()
+                .orElse(DelegateRegistry.class.getClassLoader());
+    }
 
-        for (ClassInfo classInfo : Sets.union(structures, enumerations)) {
-            Class<?> clazz = classInfo.load();
-            Class.forName(clazz.getName(), true, classLoader);
+    private static boolean isLazyRegistration() {
+        try {
+            return Boolean.getBoolean(LAZY_REGISTRATION_PROPERTY);
+        } catch (SecurityException e) {
+            return false;
         }
     }
 
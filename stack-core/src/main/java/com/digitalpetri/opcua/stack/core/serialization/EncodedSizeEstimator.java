@@ -0,0 +1,108 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.serialization;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estimates the encoded size of messages from an exponential moving average of the sizes previously encoded for
+ * the same message class, so a buffer of about the right size can be allocated before encoding starts.
+ * <p>
+ * The estimate is based on the smaller of the moving average and the most recent size, so that one large message,
+ * e.g. a 2mb ReadResponse among small ones, inflates at most the next estimate rather than the many it takes the
+ * average to decay.
+ */
+public class EncodedSizeEstimator {
+
+    /**
+     * The estimate used for a class that has not been encoded yet; the same as a default pooled buffer.
+     */
+    public static final int DEFAULT_ESTIMATE = 256;
+
+    /**
+     * Each new size contributes 1/2^WEIGHT_SHIFT to the moving average.
+     */
+    private static final int WEIGHT_SHIFT = 3;
+
+    /**
+     * The moving average in the high 32 bits and the most recent size in the low 32 bits, per message class, so both
+     * are read and written together.
+     */
+    private final ConcurrentMap<Class<?>, AtomicLong> sizes = new ConcurrentHashMap<>();
+
+    private final int maxEstimate;
+
+    /**
+     * @param maxEstimate the largest estimate that will be returned, e.g. the maximum message size.
+     */
+    public EncodedSizeEstimator(int maxEstimate) {
+        this.maxEstimate = maxEstimate;
+    }
+
+    /**
+     * @param message the message about to be encoded.
+     * @return the estimated encoded size of {@code message}, with 25% headroom over the smaller of the moving average
+     * and the most recent size.
+     */
+    public int estimate(Object message) {
+        AtomicLong state = sizes.get(message.getClass());
+
+        if (state == null) return DEFAULT_ESTIMATE;
+
+        long s = state.get();
+        int basis = Math.min(average(s), last(s));
+
+        long estimate = basis + (basis >> 2);
+
+        return (int) Math.max(DEFAULT_ESTIMATE, Math.min(estimate, maxEstimate));
+    }
+
+    /**
+     * Record the actual encoded size of {@code message}.
+     *
+     * @param message     the message that was encoded.
+     * @param encodedSize the size {@code message} encoded to.
+     */
+    public void update(Object message, int encodedSize) {
+        AtomicLong state = sizes.get(message.getClass());
+
+        if (state == null) {
+            state = sizes.computeIfAbsent(message.getClass(), k -> new AtomicLong(pack(encodedSize, encodedSize)));
+        }
+
+        /*
+         * Concurrent updates may lose one another's contribution; an estimate is all that's needed.
+         */
+        int current = average(state.get());
+        state.lazySet(pack(current + ((encodedSize - current) >> WEIGHT_SHIFT), encodedSize));
+    }
+
+    private static long pack(int average, int last) {
+        return ((long) average << 32) | (last & 0xFFFFFFFFL);
+    }
+
+    private static int average(long state) {
+        return (int) (state >>> 32);
+    }
+
+    private static int last(long state) {
+        return (int) state;
+    }
+
+}
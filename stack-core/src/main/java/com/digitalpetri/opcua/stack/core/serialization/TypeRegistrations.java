@@ -0,0 +1,558 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.serialization;
+
+import com.digitalpetri.opcua.stack.core.types.builtin.NodeId;
+import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UInteger;
+
+/**
+ * Index of the generated structured and enumerated types, whose static initializers register their encoders and
+ * decoders with the {@link DelegateRegistry}.
+ * <p>
+ * Replaces scanning the classpath for the types packages at startup, and lets the registry find the type for an
+ * encoding id without loading every type. Keep this in sync with the generated types; {@code TypeRegistrationsTest}
+ * fails if a type is missing or an encoding id is wrong.
+ */
+final class TypeRegistrations {
+
+    static final String ENUMERATED_PACKAGE = "com.digitalpetri.opcua.stack.core.types.enumerated";
+
+    static final String STRUCTURED_PACKAGE = "com.digitalpetri.opcua.stack.core.types.structured";
+
+    static final String[] ENUMERATED_TYPES = {
+            "ApplicationType",
+            "AttributeWriteMask",
+            "AxisScaleEnumeration",
+            "BrowseDirection",
+            "BrowseResultMask",
+            "ComplianceLevel",
+            "DataChangeTrigger",
+            "DeadbandType",
+            "EnumeratedTestType",
+            "ExceptionDeviationFormat",
+            "FilterOperator",
+            "HistoryUpdateType",
+            "IdType",
+            "MessageSecurityMode",
+            "ModelChangeStructureVerbMask",
+            "MonitoringMode",
+            "NamingRuleType",
+            "NodeAttributesMask",
+            "NodeClass",
+            "NodeIdType",
+            "OpenFileMode",
+            "PerformUpdateType",
+            "RedundancySupport",
+            "SecurityTokenRequestType",
+            "ServerState",
+            "TimestampsToReturn",
+            "TrustListMasks",
+            "UserTokenType"
+    };
+
+    static final String[] STRUCTURED_TYPES = {
+            "ActivateSessionRequest",
+            "ActivateSessionResponse",
+            "AddNodesItem",
+            "AddNodesRequest",
+            "AddNodesResponse",
+            "AddNodesResult",
+            "AddReferencesItem",
+            "AddReferencesRequest",
+            "AddReferencesResponse",
+            "AggregateConfiguration",
+            "AggregateFilter",
+            "AggregateFilterResult",
+            "Annotation",
+            "AnonymousIdentityToken",
+            "ApplicationDescription",
+            "Argument",
+            "ArrayTestType",
+            "AttributeOperand",
+            "AxisInformation",
+            "BrowseDescription",
+            "BrowseNextRequest",
+            "BrowseNextResponse",
+            "BrowsePath",
+            "BrowsePathResult",
+            "BrowsePathTarget",
+            "BrowseRequest",
+            "BrowseResponse",
+            "BrowseResult",
+            "BuildInfo",
+            "CallMethodRequest",
+            "CallMethodResult",
+            "CallRequest",
+            "CallResponse",
+            "CancelRequest",
+            "CancelResponse",
+            "ChannelSecurityToken",
+            "CloseSecureChannelRequest",
+            "CloseSecureChannelResponse",
+            "CloseSessionRequest",
+            "CloseSessionResponse",
+            "ComplexNumberType",
+            "CompositeTestType",
+            "ContentFilter",
+            "ContentFilterElement",
+            "ContentFilterElementResult",
+            "ContentFilterResult",
+            "CreateMonitoredItemsRequest",
+            "CreateMonitoredItemsResponse",
+            "CreateSessionRequest",
+            "CreateSessionResponse",
+            "CreateSubscriptionRequest",
+            "CreateSubscriptionResponse",
+            "DataChangeFilter",
+            "DataChangeNotification",
+            "DataTypeAttributes",
+            "DataTypeNode",
+            "DeleteAtTimeDetails",
+            "DeleteEventDetails",
+            "DeleteMonitoredItemsRequest",
+            "DeleteMonitoredItemsResponse",
+            "DeleteNodesItem",
+            "DeleteNodesRequest",
+            "DeleteNodesResponse",
+            "DeleteRawModifiedDetails",
+            "DeleteReferencesItem",
+            "DeleteReferencesRequest",
+            "DeleteReferencesResponse",
+            "DeleteSubscriptionsRequest",
+            "DeleteSubscriptionsResponse",
+            "DiscoveryConfiguration",
+            "DoubleComplexNumberType",
+            "EUInformation",
+            "ElementOperand",
+            "EndpointConfiguration",
+            "EndpointDescription",
+            "EndpointUrlListDataType",
+            "EnumValueType",
+            "EventFieldList",
+            "EventFilter",
+            "EventFilterResult",
+            "EventNotificationList",
+            "FilterOperand",
+            "FindServersOnNetworkRequest",
+            "FindServersOnNetworkResponse",
+            "FindServersRequest",
+            "FindServersResponse",
+            "GetEndpointsRequest",
+            "GetEndpointsResponse",
+            "HistoryData",
+            "HistoryEvent",
+            "HistoryEventFieldList",
+            "HistoryModifiedData",
+            "HistoryReadDetails",
+            "HistoryReadRequest",
+            "HistoryReadResponse",
+            "HistoryReadResult",
+            "HistoryReadValueId",
+            "HistoryUpdateDetails",
+            "HistoryUpdateRequest",
+            "HistoryUpdateResponse",
+            "HistoryUpdateResult",
+            "InstanceNode",
+            "IssuedIdentityToken",
+            "KerberosIdentityToken",
+            "LiteralOperand",
+            "MdnsDiscoveryConfiguration",
+            "MethodAttributes",
+            "MethodNode",
+            "ModelChangeStructureDataType",
+            "ModificationInfo",
+            "ModifyMonitoredItemsRequest",
+            "ModifyMonitoredItemsResponse",
+            "ModifySubscriptionRequest",
+            "ModifySubscriptionResponse",
+            "MonitoredItemCreateRequest",
+            "MonitoredItemCreateResult",
+            "MonitoredItemModifyRequest",
+            "MonitoredItemModifyResult",
+            "MonitoredItemNotification",
+            "MonitoringFilter",
+            "MonitoringFilterResult",
+            "MonitoringParameters",
+            "NetworkGroupDataType",
+            "Node",
+            "NodeAttributes",
+            "NodeReference",
+            "NodeTypeDescription",
+            "NotificationData",
+            "NotificationMessage",
+            "ObjectAttributes",
+            "ObjectNode",
+            "ObjectTypeAttributes",
+            "ObjectTypeNode",
+            "OpenSecureChannelRequest",
+            "OpenSecureChannelResponse",
+            "OptionSet",
+            "ParsingResult",
+            "ProgramDiagnosticDataType",
+            "PublishRequest",
+            "PublishResponse",
+            "QueryDataDescription",
+            "QueryDataSet",
+            "QueryFirstRequest",
+            "QueryFirstResponse",
+            "QueryNextRequest",
+            "QueryNextResponse",
+            "Range",
+            "ReadAtTimeDetails",
+            "ReadEventDetails",
+            "ReadProcessedDetails",
+            "ReadRawModifiedDetails",
+            "ReadRequest",
+            "ReadResponse",
+            "ReadValueId",
+            "RedundantServerDataType",
+            "ReferenceDescription",
+            "ReferenceNode",
+            "ReferenceTypeAttributes",
+            "ReferenceTypeNode",
+            "RegisterNodesRequest",
+            "RegisterNodesResponse",
+            "RegisterServer2Request",
+            "RegisterServer2Response",
+            "RegisterServerRequest",
+            "RegisterServerResponse",
+            "RegisteredServer",
+            "RelativePath",
+            "RelativePathElement",
+            "RepublishRequest",
+            "RepublishResponse",
+            "RequestHeader",
+            "ResponseHeader",
+            "SamplingIntervalDiagnosticsDataType",
+            "ScalarTestType",
+            "SemanticChangeStructureDataType",
+            "ServerDiagnosticsSummaryDataType",
+            "ServerOnNetwork",
+            "ServerStatusDataType",
+            "ServiceCounterDataType",
+            "ServiceFault",
+            "SessionDiagnosticsDataType",
+            "SessionSecurityDiagnosticsDataType",
+            "SetMonitoringModeRequest",
+            "SetMonitoringModeResponse",
+            "SetPublishingModeRequest",
+            "SetPublishingModeResponse",
+            "SetTriggeringRequest",
+            "SetTriggeringResponse",
+            "SignatureData",
+            "SignedSoftwareCertificate",
+            "SimpleAttributeOperand",
+            "SoftwareCertificate",
+            "StatusChangeNotification",
+            "StatusResult",
+            "SubscriptionAcknowledgement",
+            "SubscriptionDiagnosticsDataType",
+            "SupportedProfile",
+            "TestStackExRequest",
+            "TestStackExResponse",
+            "TestStackRequest",
+            "TestStackResponse",
+            "TimeZoneDataType",
+            "TransferResult",
+            "TransferSubscriptionsRequest",
+            "TransferSubscriptionsResponse",
+            "TranslateBrowsePathsToNodeIdsRequest",
+            "TranslateBrowsePathsToNodeIdsResponse",
+            "TrustListDataType",
+            "TypeNode",
+            "Union",
+            "UnregisterNodesRequest",
+            "UnregisterNodesResponse",
+            "UpdateDataDetails",
+            "UpdateEventDetails",
+            "UpdateStructureDataDetails",
+            "UserIdentityToken",
+            "UserNameIdentityToken",
+            "UserTokenPolicy",
+            "VariableAttributes",
+            "VariableNode",
+            "VariableTypeAttributes",
+            "VariableTypeNode",
+            "ViewAttributes",
+            "ViewDescription",
+            "ViewNode",
+            "WriteRequest",
+            "WriteResponse",
+            "WriteValue",
+            "X509IdentityToken",
+            "XVType"
+    };
+
+    /**
+     * The namespace 0 DefaultBinary and DefaultXml encoding ids of each entry in {@link #STRUCTURED_TYPES}, in pairs.
+     */
+    static final int[] STRUCTURED_ENCODING_IDS = {
+            467, 466, // ActivateSessionRequest
+            470, 469, // ActivateSessionResponse
+            378, 377, // AddNodesItem
+            488, 487, // AddNodesRequest
+            491, 490, // AddNodesResponse
+            485, 484, // AddNodesResult
+            381, 380, // AddReferencesItem
+            494, 493, // AddReferencesRequest
+            497, 496, // AddReferencesResponse
+            950, 949, // AggregateConfiguration
+            730, 729, // AggregateFilter
+            739, 738, // AggregateFilterResult
+            893, 892, // Annotation
+            321, 320, // AnonymousIdentityToken
+            310, 309, // ApplicationDescription
+            298, 297, // Argument
+            404, 403, // ArrayTestType
+            600, 599, // AttributeOperand
+            12089, 12081, // AxisInformation
+            516, 515, // BrowseDescription
+            533, 532, // BrowseNextRequest
+            536, 535, // BrowseNextResponse
+            545, 544, // BrowsePath
+            551, 550, // BrowsePathResult
+            548, 547, // BrowsePathTarget
+            527, 526, // BrowseRequest
+            530, 529, // BrowseResponse
+            524, 523, // BrowseResult
+            340, 339, // BuildInfo
+            706, 705, // CallMethodRequest
+            709, 708, // CallMethodResult
+            712, 711, // CallRequest
+            715, 714, // CallResponse
+            479, 478, // CancelRequest
+            482, 481, // CancelResponse
+            443, 442, // ChannelSecurityToken
+            452, 451, // CloseSecureChannelRequest
+            455, 454, // CloseSecureChannelResponse
+            473, 472, // CloseSessionRequest
+            476, 475, // CloseSessionResponse
+            12181, 12173, // ComplexNumberType
+            407, 406, // CompositeTestType
+            588, 587, // ContentFilter
+            585, 584, // ContentFilterElement
+            606, 605, // ContentFilterElementResult
+            609, 608, // ContentFilterResult
+            751, 750, // CreateMonitoredItemsRequest
+            754, 753, // CreateMonitoredItemsResponse
+            461, 460, // CreateSessionRequest
+            464, 463, // CreateSessionResponse
+            787, 786, // CreateSubscriptionRequest
+            790, 789, // CreateSubscriptionResponse
+            724, 723, // DataChangeFilter
+            811, 810, // DataChangeNotification
+            372, 371, // DataTypeAttributes
+            284, 283, // DataTypeNode
+            691, 690, // DeleteAtTimeDetails
+            694, 693, // DeleteEventDetails
+            781, 780, // DeleteMonitoredItemsRequest
+            784, 783, // DeleteMonitoredItemsResponse
+            384, 383, // DeleteNodesItem
+            500, 499, // DeleteNodesRequest
+            503, 502, // DeleteNodesResponse
+            688, 687, // DeleteRawModifiedDetails
+            387, 386, // DeleteReferencesItem
+            506, 505, // DeleteReferencesRequest
+            509, 508, // DeleteReferencesResponse
+            847, 846, // DeleteSubscriptionsRequest
+            850, 849, // DeleteSubscriptionsResponse
+            12900, 12892, // DiscoveryConfiguration
+            12182, 12174, // DoubleComplexNumberType
+            889, 888, // EUInformation
+            594, 593, // ElementOperand
+            333, 332, // EndpointConfiguration
+            314, 313, // EndpointDescription
+            11957, 11949, // EndpointUrlListDataType
+            8251, 7616, // EnumValueType
+            919, 918, // EventFieldList
+            727, 726, // EventFilter
+            736, 735, // EventFilterResult
+            916, 915, // EventNotificationList
+            591, 590, // FilterOperand
+            12208, 12196, // FindServersOnNetworkRequest
+            12209, 12197, // FindServersOnNetworkResponse
+            422, 421, // FindServersRequest
+            425, 424, // FindServersResponse
+            428, 427, // GetEndpointsRequest
+            431, 430, // GetEndpointsResponse
+            658, 657, // HistoryData
+            661, 660, // HistoryEvent
+            922, 921, // HistoryEventFieldList
+            11227, 11219, // HistoryModifiedData
+            643, 642, // HistoryReadDetails
+            664, 663, // HistoryReadRequest
+            667, 666, // HistoryReadResponse
+            640, 639, // HistoryReadResult
+            637, 636, // HistoryReadValueId
+            679, 678, // HistoryUpdateDetails
+            700, 699, // HistoryUpdateRequest
+            703, 702, // HistoryUpdateResponse
+            697, 696, // HistoryUpdateResult
+            11889, 11887, // InstanceNode
+            940, 939, // IssuedIdentityToken
+            12509, 12505, // KerberosIdentityToken
+            597, 596, // LiteralOperand
+            12901, 12893, // MdnsDiscoveryConfiguration
+            360, 359, // MethodAttributes
+            278, 277, // MethodNode
+            879, 878, // ModelChangeStructureDataType
+            11226, 11218, // ModificationInfo
+            763, 762, // ModifyMonitoredItemsRequest
+            766, 765, // ModifyMonitoredItemsResponse
+            793, 792, // ModifySubscriptionRequest
+            796, 795, // ModifySubscriptionResponse
+            745, 744, // MonitoredItemCreateRequest
+            748, 747, // MonitoredItemCreateResult
+            757, 756, // MonitoredItemModifyRequest
+            760, 759, // MonitoredItemModifyResult
+            808, 807, // MonitoredItemNotification
+            721, 720, // MonitoringFilter
+            733, 732, // MonitoringFilterResult
+            742, 741, // MonitoringParameters
+            11958, 11950, // NetworkGroupDataType
+            260, 259, // Node
+            351, 350, // NodeAttributes
+            582, 581, // NodeReference
+            575, 574, // NodeTypeDescription
+            947, 946, // NotificationData
+            805, 804, // NotificationMessage
+            354, 353, // ObjectAttributes
+            263, 262, // ObjectNode
+            363, 362, // ObjectTypeAttributes
+            266, 265, // ObjectTypeNode
+            446, 445, // OpenSecureChannelRequest
+            449, 448, // OpenSecureChannelResponse
+            12765, 12757, // OptionSet
+            612, 611, // ParsingResult
+            896, 895, // ProgramDiagnosticDataType
+            826, 825, // PublishRequest
+            829, 828, // PublishResponse
+            572, 571, // QueryDataDescription
+            579, 578, // QueryDataSet
+            615, 614, // QueryFirstRequest
+            618, 617, // QueryFirstResponse
+            621, 620, // QueryNextRequest
+            624, 623, // QueryNextResponse
+            886, 885, // Range
+            655, 654, // ReadAtTimeDetails
+            646, 645, // ReadEventDetails
+            652, 651, // ReadProcessedDetails
+            649, 648, // ReadRawModifiedDetails
+            631, 630, // ReadRequest
+            634, 633, // ReadResponse
+            628, 627, // ReadValueId
+            855, 854, // RedundantServerDataType
+            520, 519, // ReferenceDescription
+            287, 286, // ReferenceNode
+            369, 368, // ReferenceTypeAttributes
+            275, 274, // ReferenceTypeNode
+            560, 559, // RegisterNodesRequest
+            563, 562, // RegisterNodesResponse
+            12211, 12199, // RegisterServer2Request
+            12212, 12200, // RegisterServer2Response
+            437, 436, // RegisterServerRequest
+            440, 439, // RegisterServerResponse
+            434, 433, // RegisteredServer
+            542, 541, // RelativePath
+            539, 538, // RelativePathElement
+            832, 831, // RepublishRequest
+            835, 834, // RepublishResponse
+            391, 390, // RequestHeader
+            394, 393, // ResponseHeader
+            858, 857, // SamplingIntervalDiagnosticsDataType
+            401, 400, // ScalarTestType
+            899, 898, // SemanticChangeStructureDataType
+            861, 860, // ServerDiagnosticsSummaryDataType
+            12207, 12195, // ServerOnNetwork
+            864, 863, // ServerStatusDataType
+            873, 872, // ServiceCounterDataType
+            397, 396, // ServiceFault
+            867, 866, // SessionDiagnosticsDataType
+            870, 869, // SessionSecurityDiagnosticsDataType
+            769, 768, // SetMonitoringModeRequest
+            772, 771, // SetMonitoringModeResponse
+            799, 798, // SetPublishingModeRequest
+            802, 801, // SetPublishingModeResponse
+            775, 774, // SetTriggeringRequest
+            778, 777, // SetTriggeringResponse
+            458, 457, // SignatureData
+            346, 345, // SignedSoftwareCertificate
+            603, 602, // SimpleAttributeOperand
+            343, 342, // SoftwareCertificate
+            820, 819, // StatusChangeNotification
+            301, 300, // StatusResult
+            823, 822, // SubscriptionAcknowledgement
+            876, 875, // SubscriptionDiagnosticsDataType
+            337, 336, // SupportedProfile
+            416, 415, // TestStackExRequest
+            419, 418, // TestStackExResponse
+            410, 409, // TestStackRequest
+            413, 412, // TestStackResponse
+            8917, 8913, // TimeZoneDataType
+            838, 837, // TransferResult
+            841, 840, // TransferSubscriptionsRequest
+            844, 843, // TransferSubscriptionsResponse
+            554, 553, // TranslateBrowsePathsToNodeIdsRequest
+            557, 556, // TranslateBrowsePathsToNodeIdsResponse
+            12680, 12676, // TrustListDataType
+            11890, 11888, // TypeNode
+            12766, 12758, // Union
+            566, 565, // UnregisterNodesRequest
+            569, 568, // UnregisterNodesResponse
+            682, 681, // UpdateDataDetails
+            685, 684, // UpdateEventDetails
+            11300, 11296, // UpdateStructureDataDetails
+            318, 317, // UserIdentityToken
+            324, 323, // UserNameIdentityToken
+            306, 305, // UserTokenPolicy
+            357, 356, // VariableAttributes
+            269, 268, // VariableNode
+            366, 365, // VariableTypeAttributes
+            272, 271, // VariableTypeNode
+            375, 374, // ViewAttributes
+            513, 512, // ViewDescription
+            281, 280, // ViewNode
+            673, 672, // WriteRequest
+            676, 675, // WriteResponse
+            670, 669, // WriteValue
+            327, 326, // X509IdentityToken
+            12090, 12082 // XVType
+    };
+
+    private TypeRegistrations() {}
+
+    /**
+     * @param encodingId a DefaultBinary or DefaultXml encoding id.
+     * @return the name of the generated structured type with {@code encodingId}, or {@code null} if there is none.
+     */
+    static String structuredTypeName(NodeId encodingId) {
+        if (encodingId.getNamespaceIndex().intValue() != 0 || !(encodingId.getIdentifier() instanceof UInteger)) {
+            return null;
+        }
+
+        long id = ((UInteger) encodingId.getIdentifier()).longValue();
+
+        for (int i = 0; i < STRUCTURED_ENCODING_IDS.length; i++) {
+            if (STRUCTURED_ENCODING_IDS[i] == id) {
+                return STRUCTURED_PACKAGE + "." + STRUCTURED_TYPES[i / 2];
+            }
+        }
+
+        return null;
+    }
+
+}
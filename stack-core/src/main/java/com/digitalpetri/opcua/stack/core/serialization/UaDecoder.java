@@ -56,6 +56,20 @@ public interface UaDecoder {
 
     UInteger decodeUInt32(String field) throws UaSerializationException;
 
+    /**
+     * Decode a UInt16 as a primitive, without boxing it in a {@link UShort}.
+     */
+    default int decodeUInt16AsInt(String field) throws UaSerializationException {
+        return decodeUInt16(field).intValue();
+    }
+
+    /**
+     * Decode a UInt32 as a primitive, without boxing it in a {@link UInteger}.
+     */
+    default long decodeUInt32AsLong(String field) throws UaSerializationException {
+        return decodeUInt32(field).longValue();
+    }
+
     ULong decodeUInt64(String field) throws UaSerializationException;
 
     Float decodeFloat(String field) throws UaSerializationException;
@@ -22,6 +22,7 @@ import java.util.function.BiConsumer;
 import com.digitalpetri.opcua.stack.core.UaSerializationException;
 import com.digitalpetri.opcua.stack.core.types.builtin.ByteString;
 import com.digitalpetri.opcua.stack.core.types.builtin.DataValue;
+import com.digitalpetri.opcua.stack.core.types.builtin.DataValueBatch;
 import com.digitalpetri.opcua.stack.core.types.builtin.DateTime;
 import com.digitalpetri.opcua.stack.core.types.builtin.DiagnosticInfo;
 import com.digitalpetri.opcua.stack.core.types.builtin.ExpandedNodeId;
@@ -36,6 +37,7 @@ import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UByte;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UInteger;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.ULong;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UShort;
+import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned;
 
 public interface UaEncoder {
 
@@ -55,6 +57,20 @@ public interface UaEncoder {
 
     void encodeUInt32(String field, UInteger value) throws UaSerializationException;
 
+    /**
+     * Encode the low 16 bits of {@code value} as a UInt16.
+     */
+    default void encodeUInt16(String field, int value) throws UaSerializationException {
+        encodeUInt16(field, Unsigned.ushort(value & UShort.MAX_VALUE));
+    }
+
+    /**
+     * Encode the low 32 bits of {@code value} as a UInt32.
+     */
+    default void encodeUInt32(String field, long value) throws UaSerializationException {
+        encodeUInt32(field, Unsigned.uint(value & UInteger.MAX_VALUE));
+    }
+
     void encodeUInt64(String field, ULong value) throws UaSerializationException;
 
     void encodeFloat(String field, Float value) throws UaSerializationException;
@@ -85,6 +101,29 @@ public interface UaEncoder {
 
     void encodeDataValue(String field, DataValue value) throws UaSerializationException;
 
+    /**
+     * Encode the DataValue at {@code index} in {@code batch}, e.g. as the value of one MonitoredItemNotification.
+     */
+    default void encodeDataValue(String field, DataValueBatch batch, int index) throws UaSerializationException {
+        encodeDataValue(field, batch.getDataValue(index));
+    }
+
+    /**
+     * Encode the contents of {@code batch} as an array of DataValues.
+     */
+    default void encodeDataValueBatch(String field, DataValueBatch batch) throws UaSerializationException {
+        DataValue[] values = null;
+
+        if (batch != null) {
+            values = new DataValue[batch.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = batch.getDataValue(i);
+            }
+        }
+
+        encodeArray(field, values, this::encodeDataValue);
+    }
+
     void encodeVariant(String field, Variant value) throws UaSerializationException;
 
     void encodeDiagnosticInfo(String field, DiagnosticInfo value) throws UaSerializationException;
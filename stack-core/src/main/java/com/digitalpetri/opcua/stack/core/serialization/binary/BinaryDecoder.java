@@ -18,8 +18,9 @@ package com.digitalpetri.opcua.stack.core.serialization.binary;
 
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -60,14 +61,49 @@ public class BinaryDecoder implements UaDecoder {
 
     private final int maxArrayLength;
     private final int maxStringLength;
+    private final int stringCacheSize;
+    private final int nodeIdCacheSize;
+
+    private final DecodedStringCache stringCache;
+    private final NodeIdCache nodeIdCache;
+
+    private boolean zeroCopyByteStrings;
+    private boolean eagerExtensionObjects;
 
     public BinaryDecoder() {
         this(ChannelConfig.DEFAULT_MAX_ARRAY_LENGTH, ChannelConfig.DEFAULT_MAX_STRING_LENGTH);
     }
 
     public BinaryDecoder(int maxArrayLength, int maxStringLength) {
+        this(maxArrayLength, maxStringLength, 0);
+    }
+
+    /**
+     * @param maxArrayLength  the maximum length of a decoded array.
+     * @param maxStringLength the maximum length of a decoded string.
+     * @param stringCacheSize the number of entries in a cache that returns the same String instance for short
+     *                        strings decoded repeatedly, or 0 to decode a new String every time.
+     */
+    public BinaryDecoder(int maxArrayLength, int maxStringLength, int stringCacheSize) {
+        this(maxArrayLength, maxStringLength, stringCacheSize, 0);
+    }
+
+    /**
+     * @param maxArrayLength  the maximum length of a decoded array.
+     * @param maxStringLength the maximum length of a decoded string.
+     * @param stringCacheSize the number of entries in a cache that returns the same String instance for short
+     *                        strings decoded repeatedly, or 0 to decode a new String every time.
+     * @param nodeIdCacheSize the number of entries in an LRU cache of decoded numeric and string NodeIds outside
+     *                        the shared namespace 0 tables, or 0 for no LRU cache.
+     */
+    public BinaryDecoder(int maxArrayLength, int maxStringLength, int stringCacheSize, int nodeIdCacheSize) {
         this.maxArrayLength = maxArrayLength;
         this.maxStringLength = maxStringLength;
+        this.stringCacheSize = stringCacheSize;
+        this.nodeIdCacheSize = nodeIdCacheSize;
+
+        stringCache = stringCacheSize > 0 ? new DecodedStringCache(stringCacheSize) : null;
+        nodeIdCache = new NodeIdCache(nodeIdCacheSize);
     }
 
     public BinaryDecoder setBuffer(ByteBuf buffer) {
@@ -75,6 +111,39 @@ public class BinaryDecoder implements UaDecoder {
         return this;
     }
 
+    /**
+     * If {@code zeroCopyByteStrings} is true, ByteStrings decoded by {@link #decodeByteString(String)}, including those
+     * in Variants and ExtensionObject bodies, view a retained slice of the buffer instead of copying it. Every such
+     * ByteString holds a reference to the buffer and must be released; see {@link ByteString#wrap(ByteBuf)}.
+     * <p>
+     * Opaque NodeId identifiers and XmlElements are always copied.
+     */
+    public BinaryDecoder setZeroCopyByteStrings(boolean zeroCopyByteStrings) {
+        this.zeroCopyByteStrings = zeroCopyByteStrings;
+        return this;
+    }
+
+    /**
+     * If {@code eagerExtensionObjects} is true, binary ExtensionObject bodies with a registered decoder are decoded
+     * straight from the buffer by this decoder, instead of being copied into a ByteString to be decoded later by
+     * {@link ExtensionObject#decode()}. Bodies that fail to decode are kept encoded.
+     */
+    public BinaryDecoder setEagerExtensionObjects(boolean eagerExtensionObjects) {
+        this.eagerExtensionObjects = eagerExtensionObjects;
+        return this;
+    }
+
+    /**
+     * Create a decoder with the same limits and settings as this one, for decoding from a buffer this decoder hands
+     * off, e.g. in a {@link LazyArray}. The caches are not thread-safe, so the new decoder gets its own, of the same
+     * sizes.
+     */
+    BinaryDecoder copy() {
+        return new BinaryDecoder(maxArrayLength, maxStringLength, stringCacheSize, nodeIdCacheSize)
+                .setZeroCopyByteStrings(zeroCopyByteStrings)
+                .setEagerExtensionObjects(eagerExtensionObjects);
+    }
+
     @Override
     public Boolean decodeBoolean(String field) {
         return buffer.readBoolean();
@@ -115,6 +184,16 @@ public class BinaryDecoder implements UaDecoder {
         return Unsigned.uint(buffer.readUnsignedInt());
     }
 
+    @Override
+    public int decodeUInt16AsInt(String field) {
+        return buffer.readUnsignedShort();
+    }
+
+    @Override
+    public long decodeUInt32AsLong(String field) {
+        return buffer.readUnsignedInt();
+    }
+
     @Override
     public ULong decodeUInt64(String field) {
         return Unsigned.ulong(buffer.readLong());
@@ -142,7 +221,10 @@ public class BinaryDecoder implements UaDecoder {
                         String.format("max string length exceeded (length=%s, max=%s)", length, maxStringLength));
             }
 
-            String s = buffer.toString(buffer.readerIndex(), length, Charset.forName("UTF-8"));
+            String s = stringCache != null ?
+                    stringCache.decode(buffer, buffer.readerIndex(), length) :
+                    buffer.toString(buffer.readerIndex(), length, StandardCharsets.UTF_8);
+
             buffer.skipBytes(length);
             return s;
         }
@@ -169,6 +251,20 @@ public class BinaryDecoder implements UaDecoder {
     public ByteString decodeByteString(String field) {
         int length = decodeInt32(null);
 
+        if (length == -1) {
+            return ByteString.NULL_VALUE;
+        } else if (zeroCopyByteStrings) {
+            return ByteString.wrap(buffer.readSlice(length).retain());
+        } else {
+            byte[] bs = new byte[length];
+            buffer.readBytes(bs);
+            return new ByteString(bs);
+        }
+    }
+
+    private ByteString decodeByteStringCopy() {
+        int length = decodeInt32(null);
+
         if (length == -1) {
             return ByteString.NULL_VALUE;
         } else {
@@ -180,7 +276,7 @@ public class BinaryDecoder implements UaDecoder {
 
     @Override
     public XmlElement decodeXmlElement(String field) throws UaSerializationException {
-        ByteString byteString = decodeByteString(null);
+        ByteString byteString = decodeByteStringCopy();
         byte[] bs = byteString.bytes();
 
         if (bs == null) {
@@ -202,22 +298,25 @@ public class BinaryDecoder implements UaDecoder {
 
         if (format == 0x00) {
             /* Two-byte format */
-            return new NodeId(Unsigned.ushort(0), Unsigned.uint(buffer.readUnsignedByte()));
+            return NodeIdCache.ns0TwoByte(buffer.readUnsignedByte());
         } else if (format == 0x01) {
             /* Four-byte format */
-            return new NodeId(Unsigned.ushort(buffer.readUnsignedByte()), Unsigned.uint(buffer.readUnsignedShort()));
+            int namespaceIndex = buffer.readUnsignedByte();
+            return nodeIdCache.numeric(namespaceIndex, buffer.readUnsignedShort());
         } else if (format == 0x02) {
             /* Numeric format */
-            return new NodeId(Unsigned.ushort(buffer.readUnsignedShort()), Unsigned.uint(buffer.readUnsignedInt()));
+            int namespaceIndex = buffer.readUnsignedShort();
+            return nodeIdCache.numeric(namespaceIndex, buffer.readUnsignedInt());
         } else if (format == 0x03) {
             /* String format */
-            return new NodeId(Unsigned.ushort(buffer.readUnsignedShort()), decodeString(null));
+            int namespaceIndex = buffer.readUnsignedShort();
+            return nodeIdCache.string(namespaceIndex, decodeString(null));
         } else if (format == 0x04) {
             /* Guid format */
             return new NodeId(Unsigned.ushort(buffer.readUnsignedShort()), decodeGuid(null));
         } else if (format == 0x05) {
             /* Opaque format */
-            return new NodeId(Unsigned.ushort(buffer.readUnsignedShort()), decodeByteString(null));
+            return new NodeId(Unsigned.ushort(buffer.readUnsignedShort()), decodeByteStringCopy());
         } else {
             throw new UaSerializationException(StatusCodes.Bad_DecodingError, "invalid NodeId format: " + format);
         }
@@ -237,7 +336,7 @@ public class BinaryDecoder implements UaDecoder {
         }
 
         if ((flags & 0x40) == 0x40) {
-            serverIndex = decodeUInt32(null).longValue();
+            serverIndex = decodeUInt32AsLong(null);
         }
 
         return new ExpandedNodeId(nodeId, namespaceUri, serverIndex);
@@ -250,7 +349,7 @@ public class BinaryDecoder implements UaDecoder {
 
     @Override
     public QualifiedName decodeQualifiedName(String field) throws UaSerializationException {
-        int namespaceIndex = decodeUInt16(null).intValue();
+        int namespaceIndex = decodeUInt16AsInt(null);
         String name = decodeString(null);
 
         return new QualifiedName(Unsigned.ushort(namespaceIndex), name);
@@ -282,6 +381,14 @@ public class BinaryDecoder implements UaDecoder {
         if (encoding == 0) {
             return new ExtensionObject((ByteString) null, encodingTypeId);
         } else if (encoding == 1) {
+            if (eagerExtensionObjects) {
+                DecoderDelegate<?> delegate = DelegateRegistry.lookupDecoder(encodingTypeId);
+
+                if (delegate != null) {
+                    return decodeExtensionObjectBody(encodingTypeId, delegate);
+                }
+            }
+
             ByteString byteString = decodeByteString(null);
 
             return new ExtensionObject(byteString, encodingTypeId);
@@ -294,6 +401,34 @@ public class BinaryDecoder implements UaDecoder {
         }
     }
 
+    /**
+     * Decode an ExtensionObject body with {@code delegate}, reading from a slice of the buffer so the decoder can't read
+     * past the end of the body.
+     */
+    private ExtensionObject decodeExtensionObjectBody(NodeId encodingTypeId, DecoderDelegate<?> delegate) {
+        int length = decodeInt32(null);
+
+        if (length == -1) {
+            return new ExtensionObject(ByteString.NULL_VALUE, encodingTypeId);
+        }
+
+        ByteBuf body = buffer.readSlice(length);
+        ByteBuf message = buffer;
+
+        try {
+            buffer = body;
+
+            return ExtensionObject.ofDecoded(delegate.decode(this), encodingTypeId);
+        } catch (RuntimeException e) {
+            byte[] bs = new byte[length];
+            body.getBytes(0, bs);
+
+            return new ExtensionObject(ByteString.of(bs), encodingTypeId);
+        } finally {
+            buffer = message;
+        }
+    }
+
     @Override
     public DataValue decodeDataValue(String field) throws UaSerializationException {
         int mask = buffer.readByte() & 0x0F;
@@ -317,7 +452,9 @@ public class BinaryDecoder implements UaDecoder {
             boolean dimensionsEncoded = (encodingMask & 0x40) == 0x40;
             boolean arrayEncoded = (encodingMask & 0x80) == 0x80;
 
-            if (arrayEncoded) {
+            if (arrayEncoded && !dimensionsEncoded && isPrimitiveArrayType(typeId)) {
+                return decodePrimitiveArrayVariant(typeId, decodeInt32(null));
+            } else if (arrayEncoded) {
                 int length = decodeInt32(null);
                 Class<?> backingClass = TypeUtil.getBackingClass(typeId);
                 Object flatArray = Array.newInstance(backingClass, length);
@@ -340,6 +477,65 @@ public class BinaryDecoder implements UaDecoder {
         }
     }
 
+    private static boolean isPrimitiveArrayType(int typeId) {
+        return typeId == 6 || typeId == 8 || typeId == 10 || typeId == 11;
+    }
+
+    /**
+     * Decode a one-dimensional Int32, Int64, Float or Double array straight into a primitive array, in bulk when the
+     * buffer is backed by a single NIO buffer.
+     */
+    private Variant decodePrimitiveArrayVariant(int typeId, int length) throws UaSerializationException {
+        int elementSize = (typeId == 6 || typeId == 10) ? 4 : 8;
+
+        if (length < 0 || (long) length * elementSize > buffer.readableBytes()) {
+            throw new UaSerializationException(StatusCodes.Bad_DecodingError,
+                    String.format("array length exceeds remaining bytes (length=%s)", length));
+        }
+
+        int byteLength = length * elementSize;
+
+        ByteBuffer nioBuffer = buffer.nioBufferCount() == 1 ?
+                buffer.nioBuffer(buffer.readerIndex(), byteLength).order(ByteOrder.LITTLE_ENDIAN) : null;
+
+        Variant variant;
+
+        switch (typeId) {
+            case 6: {
+                int[] values = new int[length];
+                if (nioBuffer != null) nioBuffer.asIntBuffer().get(values);
+                else for (int i = 0; i < length; i++) values[i] = buffer.getInt(buffer.readerIndex() + i * 4);
+                variant = Variant.ofInts(values);
+                break;
+            }
+            case 8: {
+                long[] values = new long[length];
+                if (nioBuffer != null) nioBuffer.asLongBuffer().get(values);
+                else for (int i = 0; i < length; i++) values[i] = buffer.getLong(buffer.readerIndex() + i * 8);
+                variant = Variant.ofLongs(values);
+                break;
+            }
+            case 10: {
+                float[] values = new float[length];
+                if (nioBuffer != null) nioBuffer.asFloatBuffer().get(values);
+                else for (int i = 0; i < length; i++) values[i] = buffer.getFloat(buffer.readerIndex() + i * 4);
+                variant = Variant.ofFloats(values);
+                break;
+            }
+            default: {
+                double[] values = new double[length];
+                if (nioBuffer != null) nioBuffer.asDoubleBuffer().get(values);
+                else for (int i = 0; i < length; i++) values[i] = buffer.getDouble(buffer.readerIndex() + i * 8);
+                variant = Variant.ofDoubles(values);
+                break;
+            }
+        }
+
+        buffer.skipBytes(byteLength);
+
+        return variant;
+    }
+
     @Override
     public DiagnosticInfo decodeDiagnosticInfo(String field) throws UaSerializationException {
         int mask = buffer.readByte();
@@ -416,7 +612,7 @@ public class BinaryDecoder implements UaDecoder {
         } else {
             if (length > maxArrayLength) {
                 throw new UaSerializationException(StatusCodes.Bad_EncodingLimitsExceeded,
-                        String.format("max array length exceeded (length=%s, max=%s", length, maxArrayLength));
+                        String.format("max array length exceeded (length=%s, max=%s)", length, maxArrayLength));
             }
 
             T[] array = (T[]) Array.newInstance(clazz, length);
@@ -427,6 +623,33 @@ public class BinaryDecoder implements UaDecoder {
         }
     }
 
+    /**
+     * Decode an array lazily: only its length is read now, and the elements are decoded by {@code elementDecoder} as
+     * they are accessed, from a retained slice of this decoder's buffer.
+     * <p>
+     * Finding the end of the array means decoding every element, so the rest of this decoder's buffer is consumed.
+     * Fields that follow the array are decoded from {@link LazyArray#remaining()}.
+     *
+     * @param field          the name of the field.
+     * @param elementDecoder decodes one element from the decoder it is given.
+     * @return a {@link LazyArray} that must be released when no longer needed.
+     */
+    public <T> LazyArray<T> decodeLazyArray(String field,
+                                            Function<BinaryDecoder, T> elementDecoder) throws UaSerializationException {
+
+        int length = decodeInt32(null);
+
+        if (length > maxArrayLength) {
+            throw new UaSerializationException(StatusCodes.Bad_EncodingLimitsExceeded,
+                    String.format("max array length exceeded (length=%s, max=%s)", length, maxArrayLength));
+        }
+
+        ByteBuf elements = buffer.slice().retain();
+        buffer.skipBytes(buffer.readableBytes());
+
+        return new LazyArray<>(elements, Math.max(length, 0), copy(), elementDecoder);
+    }
+
     private int[] decodeDimensions() {
         int length = decodeInt32(null);
 
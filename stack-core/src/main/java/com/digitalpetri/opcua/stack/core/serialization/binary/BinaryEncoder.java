@@ -18,6 +18,7 @@ package com.digitalpetri.opcua.stack.core.serialization.binary;
 
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.UUID;
 import java.util.function.BiConsumer;
@@ -34,6 +35,7 @@ import com.digitalpetri.opcua.stack.core.serialization.UaSerializable;
 import com.digitalpetri.opcua.stack.core.serialization.UaStructure;
 import com.digitalpetri.opcua.stack.core.types.builtin.ByteString;
 import com.digitalpetri.opcua.stack.core.types.builtin.DataValue;
+import com.digitalpetri.opcua.stack.core.types.builtin.DataValueBatch;
 import com.digitalpetri.opcua.stack.core.types.builtin.DateTime;
 import com.digitalpetri.opcua.stack.core.types.builtin.DiagnosticInfo;
 import com.digitalpetri.opcua.stack.core.types.builtin.ExpandedNodeId;
@@ -48,7 +50,6 @@ import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UByte;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UInteger;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.ULong;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UShort;
-import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned;
 import com.digitalpetri.opcua.stack.core.types.enumerated.IdType;
 import com.digitalpetri.opcua.stack.core.util.ArrayUtil;
 import com.digitalpetri.opcua.stack.core.util.TypeUtil;
@@ -152,6 +153,16 @@ public class BinaryEncoder implements UaEncoder {
         }
     }
 
+    @Override
+    public void encodeUInt16(String field, int value) {
+        buffer.writeShort(value);
+    }
+
+    @Override
+    public void encodeUInt32(String field, long value) {
+        buffer.writeInt((int) value);
+    }
+
     @Override
     public void encodeUInt64(String field, ULong value) throws UaSerializationException {
         if (value == null) {
@@ -189,26 +200,13 @@ public class BinaryEncoder implements UaEncoder {
                         "max string length exceeded");
             }
 
-            try {
-                // Record the current index and write a placeholder for the length.
-                int lengthIndex = buffer.writerIndex();
-                buffer.writeInt(0x42424242);
-
-                // Write the string bytes.
-                int indexBefore = buffer.writerIndex();
-                buffer.writeBytes(value.getBytes("UTF-8"));
-                int indexAfter = buffer.writerIndex();
-                int bytesWritten = indexAfter - indexBefore;
-
-                // Go back and update the length.
-                buffer.writerIndex(lengthIndex);
-                buffer.writeInt(bytesWritten);
-
-                // Return to where we were after writing the string.
-                buffer.writerIndex(indexAfter);
-            } catch (UnsupportedEncodingException e) {
-                throw new UaSerializationException(StatusCodes.Bad_EncodingError, e);
-            }
+            // Record the current index and write a placeholder for the length.
+            int lengthIndex = buffer.writerIndex();
+            buffer.writeInt(0x42424242);
+
+            // Write the string bytes, then go back and update the length.
+            int bytesWritten = writeUtf8(value);
+            buffer.setInt(lengthIndex, bytesWritten);
         }
     }
 
@@ -268,28 +266,14 @@ public class BinaryEncoder implements UaEncoder {
     public void encodeNodeId(String field, NodeId value) throws UaSerializationException {
         if (value == null) value = NodeId.NULL_VALUE;
 
-        int namespaceIndex = value.getNamespaceIndex().intValue();
+        if (value.writeBinaryEncoding(buffer)) {
+            /* Numeric identifier; two-byte, four-byte or numeric format */
+            return;
+        }
 
-        if (value.getType() == IdType.Numeric) {
-            UInteger identifier = (UInteger) value.getIdentifier();
-            long idv = identifier.longValue();
+        int namespaceIndex = value.getNamespaceIndex().intValue();
 
-            if (namespaceIndex == 0 && idv >= 0 && idv <= 255) {
-                /* Two-byte format */
-                buffer.writeByte(0x00);
-                buffer.writeByte((int) idv);
-            } else if (namespaceIndex >= 0 && namespaceIndex <= 255 && idv <= 65535) {
-                /* Four-byte format */
-                buffer.writeByte(0x01);
-                buffer.writeByte(namespaceIndex);
-                buffer.writeShort((int) idv);
-            } else {
-                /* Numeric format */
-                buffer.writeByte(0x02);
-                buffer.writeShort(namespaceIndex);
-                buffer.writeInt((int) idv);
-            }
-        } else if (value.getType() == IdType.String) {
+        if (value.getType() == IdType.String) {
             String identifier = (String) value.getIdentifier();
 
             buffer.writeByte(0x03);
@@ -376,7 +360,7 @@ public class BinaryEncoder implements UaEncoder {
         }
 
         if (serverIndex > 0) {
-            encodeUInt32(null, Unsigned.uint(serverIndex));
+            encodeUInt32(null, serverIndex);
         }
     }
 
@@ -385,7 +369,7 @@ public class BinaryEncoder implements UaEncoder {
         if (value == null) {
             buffer.writeInt(0);
         } else {
-            encodeUInt32(null, Unsigned.uint(value.getValue()));
+            encodeUInt32(null, value.getValue());
         }
     }
 
@@ -424,6 +408,15 @@ public class BinaryEncoder implements UaEncoder {
 
     @Override
     public void encodeExtensionObject(String field, ExtensionObject value) throws UaSerializationException {
+        if (value != null && !value.isEncoded() && value.getBodyType() == ExtensionObject.BodyType.ByteString) {
+            Object decoded = value.decode();
+
+            if (decoded != null) {
+                encodeExtensionObjectBody(value.getEncodingTypeId(), decoded);
+                return;
+            }
+        }
+
         if (value == null || value.getEncoded() == null) {
             encodeNodeId(null, NodeId.NULL_VALUE);
             buffer.writeByte(0); // No body is encoded
@@ -455,6 +448,25 @@ public class BinaryEncoder implements UaEncoder {
         }
     }
 
+    /**
+     * Encode a not-yet-encoded ExtensionObject body directly into the buffer, rather than into an intermediate
+     * ByteString that is then copied into the buffer.
+     */
+    private void encodeExtensionObjectBody(NodeId encodingTypeId, Object decoded) throws UaSerializationException {
+        EncoderDelegate<Object> delegate = DelegateRegistry.getEncoder(encodingTypeId);
+
+        encodeNodeId(null, encodingTypeId);
+        buffer.writeByte(1); // Body is binary encoded
+
+        // Record the current index and write a placeholder for the length.
+        int lengthIndex = buffer.writerIndex();
+        buffer.writeInt(0x42424242);
+
+        // Write the body, then go back and update the length.
+        delegate.encode(decoded, this);
+        buffer.setInt(lengthIndex, buffer.writerIndex() - lengthIndex - 4);
+    }
+
     @Override
     public void encodeDataValue(String field, DataValue value) throws UaSerializationException {
         if (value == null) {
@@ -476,10 +488,61 @@ public class BinaryEncoder implements UaEncoder {
         }
     }
 
+    /**
+     * Encode the contents of {@code batch} as an array of DataValues, without creating a {@link DataValue} for each.
+     */
+    @Override
+    public void encodeDataValueBatch(String field, DataValueBatch batch) throws UaSerializationException {
+        if (batch == null) {
+            buffer.writeInt(-1);
+        } else {
+            int size = batch.size();
+
+            if (size > maxArrayLength) {
+                throw new UaSerializationException(StatusCodes.Bad_EncodingLimitsExceeded,
+                        "max array length exceeded");
+            }
+
+            buffer.writeInt(size);
+
+            for (int i = 0; i < size; i++) {
+                encodeDataValue(null, batch, i);
+            }
+        }
+    }
+
+    /**
+     * Encode the DataValue at {@code index} in {@code batch}, without creating a {@link DataValue} for it. A
+     * notification encoder can interleave these with the other fields of each MonitoredItemNotification.
+     */
+    @Override
+    public void encodeDataValue(String field, DataValueBatch batch, int index) throws UaSerializationException {
+        Object value = batch.getValue(index);
+        long statusCode = batch.getStatusCode(index);
+        long sourceTime = batch.getSourceTime(index);
+        long serverTime = batch.getServerTime(index);
+
+        int mask = 0x00;
+
+        if (value != null) mask |= 0x01;
+        if (statusCode != StatusCode.GOOD.getValue()) mask |= 0x02;
+        if (sourceTime != 0L) mask |= 0x04;
+        if (serverTime != 0L) mask |= 0x08;
+
+        buffer.writeByte(mask);
+
+        if ((mask & 0x01) == 0x01) encodeVariantValue(value);
+        if ((mask & 0x02) == 0x02) buffer.writeInt((int) statusCode);
+        if ((mask & 0x04) == 0x04) buffer.writeLong(sourceTime);
+        if ((mask & 0x08) == 0x08) buffer.writeLong(serverTime);
+    }
+
     @Override
     public void encodeVariant(String field, Variant variant) throws UaSerializationException {
-        Object value = variant.getValue();
+        encodeVariantValue(variant.getRawValue());
+    }
 
+    private void encodeVariantValue(Object value) throws UaSerializationException {
         if (value == null) {
             buffer.writeByte(0);
         } else {
@@ -511,10 +574,12 @@ public class BinaryEncoder implements UaEncoder {
                     int length = Array.getLength(value);
                     buffer.writeInt(length);
 
-                    for (int i = 0; i < length; i++) {
-                        Object o = Array.get(value, i);
+                    if (!writePrimitiveArray(value)) {
+                        for (int i = 0; i < length; i++) {
+                            Object o = Array.get(value, i);
 
-                        encodeValue(o, typeId, structure, enumeration);
+                            encodeValue(o, typeId, structure, enumeration);
+                        }
                     }
                 } else {
                     buffer.writeByte(typeId | 0xC0);
@@ -523,10 +588,12 @@ public class BinaryEncoder implements UaEncoder {
                     int length = Array.getLength(flattened);
                     buffer.writeInt(length);
 
-                    for (int i = 0; i < length; i++) {
-                        Object o = Array.get(flattened, i);
+                    if (!writePrimitiveArray(flattened)) {
+                        for (int i = 0; i < length; i++) {
+                            Object o = Array.get(flattened, i);
 
-                        encodeValue(o, typeId, structure, enumeration);
+                            encodeValue(o, typeId, structure, enumeration);
+                        }
                     }
 
                     encodeInt32(null, dimensions.length);
@@ -544,7 +611,7 @@ public class BinaryEncoder implements UaEncoder {
 
     private void encodeValue(Object value, int typeId, boolean structure, boolean enumeration) {
         if (structure) {
-            ExtensionObject extensionObject = ExtensionObject.encode((UaStructure) value);
+            ExtensionObject extensionObject = ExtensionObject.encodeDeferred((UaStructure) value);
 
             encodeBuiltinType(typeId, extensionObject);
         } else if (enumeration) {
@@ -554,6 +621,97 @@ public class BinaryEncoder implements UaEncoder {
         }
     }
 
+    /**
+     * Write {@code value} as UTF-8 directly into the buffer, without an intermediate byte[].
+     * <p>
+     * Like {@link String#getBytes(java.nio.charset.Charset)}, an unpaired surrogate is written as '?' rather than
+     * failing the encoding.
+     *
+     * @return the number of bytes written.
+     */
+    private int writeUtf8(String value) {
+        int length = value.length();
+
+        int i = 0;
+        while (i < length && value.charAt(i) < 0x80) i++;
+
+        // ASCII chars take one byte; any other char at most three, and a surrogate pair four.
+        buffer.ensureWritable(i + (length - i) * 3);
+
+        int writerIndex = buffer.writerIndex();
+        int index = writerIndex;
+
+        for (int j = 0; j < i; j++) {
+            buffer.setByte(index++, value.charAt(j));
+        }
+
+        for (int j = i; j < length; j++) {
+            char c = value.charAt(j);
+
+            if (c < 0x80) {
+                buffer.setByte(index++, c);
+            } else if (c < 0x800) {
+                buffer.setByte(index++, 0xC0 | (c >> 6));
+                buffer.setByte(index++, 0x80 | (c & 0x3F));
+            } else if (!Character.isSurrogate(c)) {
+                buffer.setByte(index++, 0xE0 | (c >> 12));
+                buffer.setByte(index++, 0x80 | ((c >> 6) & 0x3F));
+                buffer.setByte(index++, 0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && j + 1 < length && Character.isLowSurrogate(value.charAt(j + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++j));
+
+                buffer.setByte(index++, 0xF0 | (codePoint >> 18));
+                buffer.setByte(index++, 0x80 | ((codePoint >> 12) & 0x3F));
+                buffer.setByte(index++, 0x80 | ((codePoint >> 6) & 0x3F));
+                buffer.setByte(index++, 0x80 | (codePoint & 0x3F));
+            } else {
+                buffer.setByte(index++, '?');
+            }
+        }
+
+        buffer.writerIndex(index);
+
+        return index - writerIndex;
+    }
+
+    /**
+     * Write the elements of a double[], float[], int[] or long[] without boxing them, in bulk when the buffer is
+     * backed by a single NIO buffer.
+     *
+     * @return {@code true} if {@code array} was one of the supported primitive array types and has been written.
+     */
+    private boolean writePrimitiveArray(Object array) {
+        int elementSize;
+
+        if (array instanceof double[] || array instanceof long[]) elementSize = 8;
+        else if (array instanceof float[] || array instanceof int[]) elementSize = 4;
+        else return false;
+
+        int length = Array.getLength(array);
+        int byteLength = length * elementSize;
+
+        buffer.ensureWritable(byteLength);
+
+        if (buffer.nioBufferCount() == 1) {
+            int writerIndex = buffer.writerIndex();
+            ByteBuffer nioBuffer = buffer.nioBuffer(writerIndex, byteLength).order(ByteOrder.LITTLE_ENDIAN);
+
+            if (array instanceof double[]) nioBuffer.asDoubleBuffer().put((double[]) array);
+            else if (array instanceof long[]) nioBuffer.asLongBuffer().put((long[]) array);
+            else if (array instanceof float[]) nioBuffer.asFloatBuffer().put((float[]) array);
+            else nioBuffer.asIntBuffer().put((int[]) array);
+
+            buffer.writerIndex(writerIndex + byteLength);
+        } else {
+            if (array instanceof double[]) for (double v : (double[]) array) buffer.writeDouble(v);
+            else if (array instanceof long[]) for (long v : (long[]) array) buffer.writeLong(v);
+            else if (array instanceof float[]) for (float v : (float[]) array) buffer.writeFloat(v);
+            else for (int v : (int[]) array) buffer.writeInt(v);
+        }
+
+        return true;
+    }
+
     private Class<?> getClass(@Nonnull Object o) {
         if (o.getClass().isArray()) {
             return ArrayUtil.getType(o);
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.serialization.binary;
+
+import java.nio.charset.StandardCharsets;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * A bounded, direct-mapped cache of decoded strings keyed by their raw UTF-8 bytes, so that strings decoded over and
+ * over (NodeId identifiers, browse names, locales) resolve to one canonical instance instead of a new String each
+ * time.
+ * <p>
+ * Not thread-safe; each {@link BinaryDecoder} owns its own cache.
+ */
+final class DecodedStringCache {
+
+    /**
+     * Strings longer than this many bytes are always decoded, never cached.
+     */
+    static final int MAX_CACHED_LENGTH = 64;
+
+    private final byte[][] keys;
+    private final String[] values;
+    private final int mask;
+
+    /**
+     * @param size the number of entries; rounded up to a power of two.
+     */
+    DecodedStringCache(int size) {
+        int capacity = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+
+        keys = new byte[capacity][];
+        values = new String[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Decode the {@code length} UTF-8 bytes at {@code index}, returning the cached instance if the same bytes were
+     * decoded before. Does not move the buffer's reader index.
+     */
+    String decode(ByteBuf buffer, int index, int length) {
+        if (length < 0 || length > MAX_CACHED_LENGTH) {
+            return buffer.toString(index, length, StandardCharsets.UTF_8);
+        }
+
+        int hash = 1;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + buffer.getByte(index + i);
+        }
+
+        int slot = (hash ^ (hash >>> 16)) & mask;
+
+        byte[] key = keys[slot];
+
+        if (key != null && key.length == length && matches(key, buffer, index)) {
+            return values[slot];
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.getBytes(index, bytes);
+
+        String value = new String(bytes, StandardCharsets.UTF_8);
+
+        keys[slot] = bytes;
+        values[slot] = value;
+
+        return value;
+    }
+
+    private static boolean matches(byte[] key, ByteBuf buffer, int index) {
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != buffer.getByte(index + i)) return false;
+        }
+
+        return true;
+    }
+
+}
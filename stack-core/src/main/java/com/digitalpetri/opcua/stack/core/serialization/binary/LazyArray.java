@@ -0,0 +1,153 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.serialization.binary;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.AbstractReferenceCounted;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+/**
+ * An array whose elements are decoded on access from a retained slice of the message buffer, rather than all at once.
+ * <p>
+ * The start offset of each element is recorded the first time the decoder passes it, so elements can be revisited in
+ * any order, while iterating decodes each element exactly once. Each access decodes a new instance; nothing decoded
+ * is retained by the array.
+ * <p>
+ * Holds a reference to the message buffer until {@link #release()}d. Not thread-safe.
+ */
+public final class LazyArray<T> extends AbstractReferenceCounted implements Iterable<T> {
+
+    private final int[] offsets;
+    private int offsetCount;
+    private int endOffset = -1;
+
+    private final ByteBuf buffer;
+    private final BinaryDecoder decoder;
+    private final BinaryDecoder skipDecoder;
+    private final Function<BinaryDecoder, T> elementDecoder;
+
+    /**
+     * @param buffer         a buffer positioned at the first element, which becomes owned by this array.
+     * @param length         the number of elements.
+     * @param decoder        a decoder configured like the one that decoded the message, which becomes owned by this
+     *                       array.
+     * @param elementDecoder decodes one element from the decoder it is given.
+     */
+    LazyArray(ByteBuf buffer,
+              int length,
+              BinaryDecoder decoder,
+              Function<BinaryDecoder, T> elementDecoder) {
+
+        this.buffer = buffer;
+        this.decoder = decoder.setBuffer(buffer);
+        this.elementDecoder = elementDecoder;
+
+        // Elements decoded only to find the next offset are discarded, so they must not retain the buffer.
+        skipDecoder = decoder.copy().setZeroCopyByteStrings(false).setBuffer(buffer);
+
+        offsets = new int[length];
+
+        if (length > 0) {
+            offsets[0] = buffer.readerIndex();
+            offsetCount = 1;
+        } else {
+            endOffset = buffer.readerIndex();
+        }
+    }
+
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * Decode the element at {@code index}, first decoding any elements before it that have not been reached yet.
+     */
+    public T get(int index) {
+        checkElementIndex(index, offsets.length);
+
+        for (int i = offsetCount - 1; i < index; i++) {
+            decodeAt(i, skipDecoder);
+        }
+
+        return decodeAt(index, decoder);
+    }
+
+    /**
+     * @return an {@link Iterator} that decodes each element as it is reached.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < offsets.length;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) throw new NoSuchElementException();
+
+                return get(index++);
+            }
+        };
+    }
+
+    /**
+     * Get a decoder for the fields that follow the array in the message, decoding any elements that have not been
+     * reached yet to find where the array ends.
+     * <p>
+     * The returned decoder reads from this array's buffer and is only valid until the array is released.
+     */
+    public BinaryDecoder remaining() {
+        if (endOffset < 0) {
+            for (int i = offsetCount - 1; i < offsets.length; i++) {
+                decodeAt(i, skipDecoder);
+            }
+        }
+
+        return decoder.copy().setBuffer(buffer.duplicate().readerIndex(endOffset));
+    }
+
+    private T decodeAt(int index, BinaryDecoder decoder) {
+        buffer.readerIndex(offsets[index]);
+
+        T element = elementDecoder.apply(decoder);
+
+        if (index == offsetCount - 1) {
+            if (offsetCount < offsets.length) {
+                offsets[offsetCount++] = buffer.readerIndex();
+            } else {
+                endOffset = buffer.readerIndex();
+            }
+        }
+
+        return element;
+    }
+
+    @Override
+    protected void deallocate() {
+        buffer.release();
+    }
+
+}
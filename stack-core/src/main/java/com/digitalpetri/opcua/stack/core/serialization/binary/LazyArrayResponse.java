@@ -0,0 +1,189 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.serialization.binary;
+
+import java.util.function.Function;
+
+import com.digitalpetri.opcua.stack.core.StatusCodes;
+import com.digitalpetri.opcua.stack.core.UaSerializationException;
+import com.digitalpetri.opcua.stack.core.serialization.DecoderDelegate;
+import com.digitalpetri.opcua.stack.core.serialization.DelegateRegistry;
+import com.digitalpetri.opcua.stack.core.serialization.UaResponseMessage;
+import com.digitalpetri.opcua.stack.core.types.builtin.DataValue;
+import com.digitalpetri.opcua.stack.core.types.builtin.DiagnosticInfo;
+import com.digitalpetri.opcua.stack.core.types.builtin.NodeId;
+import com.digitalpetri.opcua.stack.core.types.structured.BrowseResponse;
+import com.digitalpetri.opcua.stack.core.types.structured.BrowseResult;
+import com.digitalpetri.opcua.stack.core.types.structured.HistoryReadResponse;
+import com.digitalpetri.opcua.stack.core.types.structured.HistoryReadResult;
+import com.digitalpetri.opcua.stack.core.types.structured.ReadResponse;
+import com.digitalpetri.opcua.stack.core.types.structured.ResponseHeader;
+import io.netty.util.AbstractReferenceCounted;
+
+/**
+ * A response made of a {@link ResponseHeader}, a potentially large array of results and an array of
+ * {@link DiagnosticInfo}s, such as a {@link ReadResponse}, {@link BrowseResponse} or {@link HistoryReadResponse},
+ * decoded with its results in a {@link LazyArray}.
+ * <p>
+ * Holds a reference to the message buffer until {@link #release()}d. Not thread-safe.
+ */
+public final class LazyArrayResponse<T> extends AbstractReferenceCounted implements UaResponseMessage {
+
+    private DiagnosticInfo[] diagnosticInfos;
+
+    private final NodeId typeId;
+    private final NodeId binaryEncodingId;
+    private final NodeId xmlEncodingId;
+    private final ResponseHeader responseHeader;
+    private final LazyArray<T> results;
+
+    private LazyArrayResponse(NodeId typeId,
+                              NodeId binaryEncodingId,
+                              NodeId xmlEncodingId,
+                              ResponseHeader responseHeader,
+                              LazyArray<T> results) {
+
+        this.typeId = typeId;
+        this.binaryEncodingId = binaryEncodingId;
+        this.xmlEncodingId = xmlEncodingId;
+        this.responseHeader = responseHeader;
+        this.results = results;
+    }
+
+    @Override
+    public ResponseHeader getResponseHeader() {
+        return responseHeader;
+    }
+
+    @Override
+    public NodeId getTypeId() {
+        return typeId;
+    }
+
+    @Override
+    public NodeId getBinaryEncodingId() {
+        return binaryEncodingId;
+    }
+
+    @Override
+    public NodeId getXmlEncodingId() {
+        return xmlEncodingId;
+    }
+
+    public LazyArray<T> getResults() {
+        return results;
+    }
+
+    /**
+     * The diagnostic infos follow the results in the message, so the first call decodes any results that have not
+     * been reached yet.
+     */
+    public DiagnosticInfo[] getDiagnosticInfos() {
+        if (diagnosticInfos == null) {
+            BinaryDecoder decoder = results.remaining();
+
+            diagnosticInfos = decoder.decodeArray(null, decoder::decodeDiagnosticInfo, DiagnosticInfo.class);
+        }
+
+        return diagnosticInfos;
+    }
+
+    @Override
+    protected void deallocate() {
+        results.release();
+    }
+
+    /**
+     * Decode a {@link ReadResponse} message, starting at its encoding id, with its results decoded lazily.
+     */
+    public static LazyArrayResponse<DataValue> decodeReadResponse(BinaryDecoder decoder) {
+        return decodeReadResponse(decoder, decoder.decodeNodeId(null));
+    }
+
+    /**
+     * Decode a {@link BrowseResponse} message, starting at its encoding id, with its results decoded lazily.
+     */
+    public static LazyArrayResponse<BrowseResult> decodeBrowseResponse(BinaryDecoder decoder) {
+        return decodeBrowseResponse(decoder, decoder.decodeNodeId(null));
+    }
+
+    /**
+     * Decode a {@link HistoryReadResponse} message, starting at its encoding id, with its results decoded lazily.
+     */
+    public static LazyArrayResponse<HistoryReadResult> decodeHistoryReadResponse(BinaryDecoder decoder) {
+        return decodeHistoryReadResponse(decoder, decoder.decodeNodeId(null));
+    }
+
+    /**
+     * Decode any response message, starting at its encoding id. A {@link ReadResponse}, {@link BrowseResponse} or
+     * {@link HistoryReadResponse} is decoded as a {@link LazyArrayResponse}; any other response, e.g. a
+     * {@link com.digitalpetri.opcua.stack.core.types.structured.ServiceFault}, is decoded as usual.
+     */
+    public static UaResponseMessage decodeResponse(BinaryDecoder decoder) {
+        NodeId encodingId = decoder.decodeNodeId(null);
+
+        if (ReadResponse.BinaryEncodingId.equals(encodingId)) {
+            return decodeReadResponse(decoder, encodingId);
+        } else if (BrowseResponse.BinaryEncodingId.equals(encodingId)) {
+            return decodeBrowseResponse(decoder, encodingId);
+        } else if (HistoryReadResponse.BinaryEncodingId.equals(encodingId)) {
+            return decodeHistoryReadResponse(decoder, encodingId);
+        } else {
+            DecoderDelegate<UaResponseMessage> delegate = DelegateRegistry.getDecoder(encodingId);
+
+            return delegate.decode(decoder);
+        }
+    }
+
+    private static LazyArrayResponse<DataValue> decodeReadResponse(BinaryDecoder decoder, NodeId encodingId) {
+        return decode(decoder, encodingId,
+                ReadResponse.TypeId, ReadResponse.BinaryEncodingId, ReadResponse.XmlEncodingId,
+                d -> d.decodeDataValue(null));
+    }
+
+    private static LazyArrayResponse<BrowseResult> decodeBrowseResponse(BinaryDecoder decoder, NodeId encodingId) {
+        return decode(decoder, encodingId,
+                BrowseResponse.TypeId, BrowseResponse.BinaryEncodingId, BrowseResponse.XmlEncodingId,
+                d -> d.decodeSerializable(null, BrowseResult.class));
+    }
+
+    private static LazyArrayResponse<HistoryReadResult> decodeHistoryReadResponse(BinaryDecoder decoder,
+                                                                                  NodeId encodingId) {
+        return decode(decoder, encodingId,
+                HistoryReadResponse.TypeId, HistoryReadResponse.BinaryEncodingId, HistoryReadResponse.XmlEncodingId,
+                d -> d.decodeSerializable(null, HistoryReadResult.class));
+    }
+
+    private static <T> LazyArrayResponse<T> decode(BinaryDecoder decoder,
+                                                   NodeId encodingId,
+                                                   NodeId typeId,
+                                                   NodeId binaryEncodingId,
+                                                   NodeId xmlEncodingId,
+                                                   Function<BinaryDecoder, T> resultDecoder) {
+
+        if (!binaryEncodingId.equals(encodingId)) {
+            throw new UaSerializationException(StatusCodes.Bad_DecodingError,
+                    "expected encodingId=" + binaryEncodingId + " but was " + encodingId);
+        }
+
+        ResponseHeader responseHeader = decoder.decodeSerializable(null, ResponseHeader.class);
+        LazyArray<T> results = decoder.decodeLazyArray(null, resultDecoder);
+
+        return new LazyArrayResponse<>(typeId, binaryEncodingId, xmlEncodingId, responseHeader, results);
+    }
+
+}
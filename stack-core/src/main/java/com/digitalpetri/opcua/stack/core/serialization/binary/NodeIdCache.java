@@ -0,0 +1,162 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.serialization.binary;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.digitalpetri.opcua.stack.core.types.builtin.NodeId;
+
+import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
+
+/**
+ * Canonical {@link NodeId} instances for decoding.
+ * <p>
+ * Numeric NodeIds in namespace 0 with identifiers that fit the two-byte and four-byte encodings, which covers the
+ * type and encoding ids that prefix every message and ExtensionObject, come from tables shared by all decoders.
+ * Other numeric and string NodeIds can optionally go through a bounded LRU cache owned by a single
+ * {@link BinaryDecoder}.
+ */
+final class NodeIdCache {
+
+    private static final NodeId[] NS0_TWO_BYTE = new NodeId[256];
+
+    static {
+        for (int i = 0; i < NS0_TWO_BYTE.length; i++) {
+            NS0_TWO_BYTE[i] = new NodeId(ushort(0), uint(i));
+        }
+    }
+
+    /**
+     * Filled in on first use. NodeId is immutable, so racing writers at worst create duplicate instances.
+     */
+    private static final NodeId[] NS0_FOUR_BYTE = new NodeId[65536];
+
+    /**
+     * @return the canonical NodeId for a numeric identifier in namespace 0 that fits in a byte.
+     */
+    static NodeId ns0TwoByte(int identifier) {
+        return NS0_TWO_BYTE[identifier];
+    }
+
+    /**
+     * @return the canonical NodeId for a numeric identifier in namespace 0 that fits in an unsigned short.
+     */
+    static NodeId ns0FourByte(int identifier) {
+        if (identifier < NS0_TWO_BYTE.length) {
+            return NS0_TWO_BYTE[identifier];
+        }
+
+        NodeId nodeId = NS0_FOUR_BYTE[identifier];
+
+        if (nodeId == null) {
+            nodeId = new NodeId(ushort(0), uint(identifier));
+            NS0_FOUR_BYTE[identifier] = nodeId;
+        }
+
+        return nodeId;
+    }
+
+    private final Key probe = new Key();
+
+    private final Map<Key, NodeId> lru;
+
+    /**
+     * @param lruSize the maximum number of NodeIds outside the namespace 0 tables to keep, or 0 for none.
+     */
+    NodeIdCache(int lruSize) {
+        lru = lruSize > 0 ? new LinkedHashMap<Key, NodeId>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, NodeId> eldest) {
+                return size() > lruSize;
+            }
+        } : null;
+    }
+
+    NodeId numeric(int namespaceIndex, long identifier) {
+        if (namespaceIndex == 0 && identifier < NS0_FOUR_BYTE.length) {
+            return ns0FourByte((int) identifier);
+        }
+
+        if (lru == null) {
+            return new NodeId(ushort(namespaceIndex), uint(identifier));
+        }
+
+        probe.set(namespaceIndex, identifier, null);
+
+        NodeId nodeId = lru.get(probe);
+
+        if (nodeId == null) {
+            nodeId = new NodeId(ushort(namespaceIndex), uint(identifier));
+            lru.put(new Key().set(namespaceIndex, identifier, null), nodeId);
+        }
+
+        return nodeId;
+    }
+
+    NodeId string(int namespaceIndex, String identifier) {
+        if (lru == null || identifier == null) {
+            return new NodeId(ushort(namespaceIndex), identifier);
+        }
+
+        probe.set(namespaceIndex, 0L, identifier);
+
+        NodeId nodeId = lru.get(probe);
+
+        if (nodeId == null) {
+            nodeId = new NodeId(ushort(namespaceIndex), identifier);
+            lru.put(new Key().set(namespaceIndex, 0L, identifier), nodeId);
+        }
+
+        return nodeId;
+    }
+
+    private static final class Key {
+        private int namespaceIndex;
+        private long numeric;
+        private String string;
+
+        Key set(int namespaceIndex, long numeric, String string) {
+            this.namespaceIndex = namespaceIndex;
+            this.numeric = numeric;
+            this.string = string;
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Key key = (Key) o;
+
+            return namespaceIndex == key.namespaceIndex &&
+                    numeric == key.numeric &&
+                    Objects.equals(string, key.string);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = namespaceIndex;
+            result = 31 * result + (string != null ? string.hashCode() : Long.hashCode(numeric));
+            return result;
+        }
+    }
+
+}
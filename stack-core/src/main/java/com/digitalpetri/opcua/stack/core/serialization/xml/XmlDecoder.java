@@ -230,10 +230,10 @@ public class XmlDecoder implements UaDecoder {
     @Override
     public StatusCode decodeStatusCode(String field) {
         if (nextStartElement(field)) {
-            UInteger value = Unsigned.uint(0);
+            long value = 0L;
 
             if (nextStartElement("Code")) {
-                value = decodeUInt32(null);
+                value = decodeUInt32AsLong(null);
                 requireNextEndElement("Code");
             }
 
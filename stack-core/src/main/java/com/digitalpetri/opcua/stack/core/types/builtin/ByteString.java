@@ -22,36 +22,83 @@ import javax.annotation.Nullable;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UByte;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned;
 import com.google.common.base.MoreObjects;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 
 public final class ByteString {
 
-    public static final ByteString NULL_VALUE = new ByteString(null);
+    public static final ByteString NULL_VALUE = new ByteString((byte[]) null);
 
     private final byte[] bytes;
 
+    /**
+     * Set only for a ByteString created by {@link #wrap(ByteBuf)}. Kept out of line so that array-backed ByteStrings,
+     * the common case, only ever read final fields.
+     */
+    private final Buffered buffered;
+
     public ByteString(@Nullable byte[] bytes) {
         this.bytes = bytes;
+        this.buffered = null;
+    }
+
+    private ByteString(ByteBuf buffer) {
+        this.bytes = null;
+        this.buffered = new Buffered(buffer);
     }
 
     public int length() {
+        if (buffered != null) return buffered.buffer.readableBytes();
+
         return bytes != null ? bytes.length : 0;
     }
 
     public boolean isNull() {
-        return bytes == null;
+        return bytes == null && buffered == null;
     }
 
     public boolean isNotNull() {
-        return bytes != null;
+        return !isNull();
     }
 
+    /**
+     * @return the bytes of this ByteString. If it views a buffer, the bytes are copied out of it on the first call.
+     */
     @Nullable
     public byte[] bytes() {
-        return bytes;
+        return buffered != null ? buffered.bytes() : bytes;
+    }
+
+    /**
+     * @return {@code true} if this ByteString views a buffer, in which case it must be {@link #release()}d.
+     */
+    public boolean isBuffered() {
+        return buffered != null;
+    }
+
+    /**
+     * @return a ByteString with the same bytes that does not view a buffer, which can be kept after this one is
+     * released. A ByteString that does not view a buffer is returned as is.
+     */
+    public ByteString copy() {
+        return buffered != null ? new ByteString(buffered.bytes()) : this;
+    }
+
+    /**
+     * Release the buffer this ByteString views, if any. Its bytes can't be accessed afterwards unless they were
+     * already copied out by {@link #bytes()}.
+     *
+     * @return {@code true} if the buffer was deallocated.
+     */
+    public boolean release() {
+        return buffered != null && buffered.buffer.release();
     }
 
     @Nullable
     public UByte[] uBytes() {
+        byte[] bytes = bytes();
+
         if (bytes == null) return null;
 
         UByte[] bs = new UByte[bytes.length];
@@ -62,6 +109,14 @@ public final class ByteString {
     }
 
     public byte byteAt(int index) {
+        if (buffered != null) {
+            ByteBuf buffer = buffered.buffer;
+
+            if (index < 0 || index >= buffer.readableBytes()) throw new IndexOutOfBoundsException("index=" + index);
+
+            return buffer.getByte(buffer.readerIndex() + index);
+        }
+
         if (bytes == null) throw new IndexOutOfBoundsException("index=" + index);
 
         return bytes[index];
@@ -78,23 +133,97 @@ public final class ByteString {
 
         ByteString that = (ByteString) o;
 
-        return Arrays.equals(bytes, that.bytes);
+        if (buffered == null && that.buffered == null) {
+            return Arrays.equals(bytes, that.bytes);
+        }
+
+        if (isNull() || that.isNull()) return false;
+
+        return ByteBufUtil.equals(asBuffer(), that.asBuffer());
     }
 
     @Override
     public int hashCode() {
-        return bytes != null ? Arrays.hashCode(bytes) : 0;
+        if (buffered == null) {
+            return bytes != null ? Arrays.hashCode(bytes) : 0;
+        }
+
+        byte[] bs = buffered.copy;
+        if (bs != null) return Arrays.hashCode(bs);
+
+        /* Same result as Arrays.hashCode, without copying the bytes out of the buffer. */
+        ByteBuf buffer = buffered.buffer;
+        int result = 1;
+        for (int i = buffer.readerIndex(); i < buffer.writerIndex(); i++) {
+            result = 31 * result + buffer.getByte(i);
+        }
+        return result;
+    }
+
+    /**
+     * @return the bytes of this non-null ByteString as a buffer, without copying them.
+     */
+    private ByteBuf asBuffer() {
+        if (buffered == null) return Unpooled.wrappedBuffer(bytes);
+
+        byte[] bs = buffered.copy;
+
+        return bs != null ? Unpooled.wrappedBuffer(bs) : buffered.buffer;
     }
 
     public static ByteString of(byte[] bs) {
         return new ByteString(bs);
     }
 
+    /**
+     * Create a ByteString that views the readable bytes of {@code buffer} without copying them.
+     * <p>
+     * The ByteString takes ownership of the caller's reference to {@code buffer} and must be {@link #release()}d;
+     * use {@link #copy()} to keep the bytes beyond that.
+     */
+    public static ByteString wrap(ByteBuf buffer) {
+        return new ByteString(buffer);
+    }
+
     @Override
     public String toString() {
+        if (buffered != null && buffered.copy == null && buffered.buffer.refCnt() == 0) {
+            return MoreObjects.toStringHelper(this)
+                    .add("length", buffered.buffer.readableBytes())
+                    .add("released", true)
+                    .toString();
+        }
+
         return MoreObjects.toStringHelper(this)
-                .add("bytes", Arrays.toString(bytes))
+                .add("bytes", Arrays.toString(bytes()))
                 .toString();
     }
 
+    private static final class Buffered {
+
+        private final ByteBuf buffer;
+
+        /**
+         * Filled in from {@link #buffer} the first time the bytes are needed as an array.
+         */
+        private volatile byte[] copy;
+
+        private Buffered(ByteBuf buffer) {
+            this.buffer = buffer;
+        }
+
+        private byte[] bytes() {
+            byte[] bs = copy;
+
+            if (bs == null) {
+                bs = new byte[buffer.readableBytes()];
+                buffer.getBytes(buffer.readerIndex(), bs);
+                copy = bs;
+            }
+
+            return bs;
+        }
+
+    }
+
 }
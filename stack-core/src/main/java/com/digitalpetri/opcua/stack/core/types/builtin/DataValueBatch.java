@@ -0,0 +1,174 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.types.builtin;
+
+import java.util.Arrays;
+import javax.annotation.Nullable;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * A mutable, columnar batch of DataValues.
+ * <p>
+ * Values, status codes and timestamps are kept in parallel arrays rather than as {@link DataValue}, {@link Variant},
+ * {@link StatusCode} and {@link DateTime} instances, and
+ * {@link com.digitalpetri.opcua.stack.core.serialization.binary.BinaryEncoder#encodeDataValueBatch(String,
+ * DataValueBatch)} writes them directly, in the same form as an array of DataValues. A batch can be cleared and
+ * refilled without allocating once it has grown to the number of values it holds.
+ * <p>
+ * Timestamps are 100 nanosecond intervals since UTC epoch, as returned by {@link DateTime#getUtcTime()}; 0 means the
+ * timestamp is absent. A batch is not thread safe.
+ */
+public final class DataValueBatch {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Object[] values;
+    private long[] statusCodes;
+    private long[] sourceTimes;
+    private long[] serverTimes;
+
+    private int size = 0;
+
+    public DataValueBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DataValueBatch(int initialCapacity) {
+        values = new Object[initialCapacity];
+        statusCodes = new long[initialCapacity];
+        sourceTimes = new long[initialCapacity];
+        serverTimes = new long[initialCapacity];
+    }
+
+    /**
+     * Append a value to the batch.
+     *
+     * @param value      the raw value, anything a {@link Variant} can be created with, or {@code null}.
+     * @param statusCode the status code value.
+     * @param sourceTime the source timestamp, or 0 if absent.
+     * @param serverTime the server timestamp, or 0 if absent.
+     * @return the index of the value in the batch.
+     */
+    public int add(@Nullable Object value, long statusCode, long sourceTime, long serverTime) {
+        if (size == values.length) {
+            grow();
+        }
+
+        int index = size++;
+
+        set(index, value, statusCode, sourceTime, serverTime);
+
+        return index;
+    }
+
+    public int add(DataValue dataValue) {
+        return add(
+                dataValue.getValue() != null ? dataValue.getValue().getRawValue() : null,
+                dataValue.getStatusCode() != null ? dataValue.getStatusCode().getValue() : StatusCode.GOOD.getValue(),
+                dataValue.getSourceTime() != null ? dataValue.getSourceTime().getUtcTime() : 0L,
+                dataValue.getServerTime() != null ? dataValue.getServerTime().getUtcTime() : 0L);
+    }
+
+    /**
+     * Replace the value at {@code index}.
+     *
+     * @see #add(Object, long, long, long)
+     */
+    public void set(int index, @Nullable Object value, long statusCode, long sourceTime, long serverTime) {
+        checkIndex(index);
+
+        values[index] = value;
+        statusCodes[index] = statusCode;
+        sourceTimes[index] = sourceTime;
+        serverTimes[index] = serverTime;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Nullable
+    public Object getValue(int index) {
+        checkIndex(index);
+
+        return values[index];
+    }
+
+    public long getStatusCode(int index) {
+        checkIndex(index);
+
+        return statusCodes[index];
+    }
+
+    public long getSourceTime(int index) {
+        checkIndex(index);
+
+        return sourceTimes[index];
+    }
+
+    public long getServerTime(int index) {
+        checkIndex(index);
+
+        return serverTimes[index];
+    }
+
+    /**
+     * @return a new {@link DataValue} for the value at {@code index}.
+     */
+    public DataValue getDataValue(int index) {
+        checkIndex(index);
+
+        return new DataValue(
+                values[index] != null ? new Variant(values[index]) : Variant.NULL_VALUE,
+                new StatusCode(statusCodes[index]),
+                new DateTime(sourceTimes[index]),
+                new DateTime(serverTimes[index]));
+    }
+
+    /**
+     * Remove all values from the batch, keeping its capacity.
+     */
+    public void clear() {
+        Arrays.fill(values, 0, size, null);
+
+        size = 0;
+    }
+
+    private void grow() {
+        int capacity = Math.max(values.length * 2, DEFAULT_CAPACITY);
+
+        values = Arrays.copyOf(values, capacity);
+        statusCodes = Arrays.copyOf(statusCodes, capacity);
+        sourceTimes = Arrays.copyOf(sourceTimes, capacity);
+        serverTimes = Arrays.copyOf(serverTimes, capacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("size", size)
+                .toString();
+    }
+
+}
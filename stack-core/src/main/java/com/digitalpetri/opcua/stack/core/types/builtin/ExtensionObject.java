@@ -36,9 +36,17 @@ public final class ExtensionObject {
     private final Object encoded;
     private final NodeId encodingTypeId;
 
+    /**
+     * Set only for an ExtensionObject created by {@link #ofDecoded(Object, NodeId)} or
+     * {@link #encodeDeferred(UaStructure)}. Kept out of line so that ExtensionObjects created from an encoded body
+     * never read a volatile field to get it.
+     */
+    private final LazyEncoding lazyEncoding;
+
     public ExtensionObject(ByteString encoded, NodeId encodingTypeId) {
         this.encoded = encoded;
         this.encodingTypeId = encodingTypeId;
+        this.lazyEncoding = null;
 
         bodyType = BodyType.ByteString;
     }
@@ -46,12 +54,29 @@ public final class ExtensionObject {
     public ExtensionObject(XmlElement encoded, NodeId encodingTypeId) {
         this.encoded = encoded;
         this.encodingTypeId = encodingTypeId;
+        this.lazyEncoding = null;
 
         bodyType = BodyType.XmlElement;
     }
 
+    private ExtensionObject(Object decoded, NodeId encodingTypeId) {
+        this.decoded = decoded;
+        this.encoded = null;
+        this.encodingTypeId = encodingTypeId;
+        this.lazyEncoding = new LazyEncoding(decoded, encodingTypeId);
+
+        bodyType = BodyType.ByteString;
+    }
+
     public Object getEncoded() {
-        return encoded;
+        return lazyEncoding != null ? lazyEncoding.encoded() : encoded;
+    }
+
+    /**
+     * @return {@code true} if the encoded body is available without encoding the decoded value first.
+     */
+    public boolean isEncoded() {
+        return lazyEncoding != null ? lazyEncoding.encoded != null : encoded != null;
     }
 
     public NodeId getEncodingTypeId() {
@@ -94,10 +119,33 @@ public final class ExtensionObject {
         throw new RuntimeException("encodingType=" + bodyType);
     }
 
+    /**
+     * Create a binary encoded ExtensionObject whose body has already been decoded, e.g. straight from a message
+     * buffer. The encoded body is only produced if {@link #getEncoded()} is called.
+     *
+     * @param decoded        the decoded body.
+     * @param encodingTypeId the binary encoding id of the body.
+     */
+    public static ExtensionObject ofDecoded(Object decoded, NodeId encodingTypeId) {
+        return new ExtensionObject(decoded, encodingTypeId);
+    }
+
     public static ExtensionObject encode(UaStructure structure) throws UaSerializationException {
         return encodeAsByteString(structure, structure.getBinaryEncodingId());
     }
 
+    /**
+     * Create a binary encoded ExtensionObject for {@code structure} without encoding it yet.
+     * <p>
+     * A {@link com.digitalpetri.opcua.stack.core.serialization.binary.BinaryEncoder} writes the body of a deferred
+     * ExtensionObject straight into its buffer, so {@code structure} must not be modified until it has been encoded.
+     *
+     * @param structure the structure to encode.
+     */
+    public static ExtensionObject encodeDeferred(UaStructure structure) {
+        return ofDecoded(structure, structure.getBinaryEncodingId());
+    }
+
     public static ExtensionObject encodeAsByteString(Object object, NodeId encodingTypeId) throws UaSerializationException {
         return encodeAsByteString(object, encodingTypeId, DataTypeEncoding.OPC_UA);
     }
@@ -124,6 +172,10 @@ public final class ExtensionObject {
         return new ExtensionObject(encoded, encodingTypeId);
     }
 
+    /**
+     * Two ExtensionObjects whose bodies were both created decoded are equal if their decoded values are equal.
+     * Otherwise their encoded bodies are compared, encoding a decoded body if it has not been encoded yet.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -131,21 +183,64 @@ public final class ExtensionObject {
 
         ExtensionObject that = (ExtensionObject) o;
 
-        return Objects.equal(encoded, that.encoded) &&
-                Objects.equal(encodingTypeId, that.encodingTypeId);
+        if (!Objects.equal(encodingTypeId, that.encodingTypeId)) return false;
+
+        if (lazyEncoding != null && that.lazyEncoding != null) {
+            return Objects.equal(lazyEncoding.decoded, that.lazyEncoding.decoded);
+        }
+
+        return Objects.equal(getEncoded(), that.getEncoded());
     }
 
+    /**
+     * Only the encoding id is hashed, so that an ExtensionObject created decoded hashes the same as an equal one
+     * created from its encoded body without encoding anything.
+     */
     @Override
     public int hashCode() {
-        return Objects.hashCode(encoded, encodingTypeId);
+        return Objects.hashCode(encodingTypeId);
     }
 
     @Override
     public String toString() {
-        return MoreObjects.toStringHelper(this)
-                .add("encoded", encoded)
+        MoreObjects.ToStringHelper helper = MoreObjects.toStringHelper(this);
+
+        if (lazyEncoding != null) {
+            helper.add("decoded", lazyEncoding.decoded);
+        } else {
+            helper.add("encoded", encoded);
+        }
+
+        return helper
                 .add("encodingTypeId", encodingTypeId)
                 .toString();
     }
 
+    private static final class LazyEncoding {
+
+        private final Object decoded;
+        private final NodeId encodingTypeId;
+
+        /**
+         * {@link #decoded} encoded, the first time it is needed.
+         */
+        private volatile ByteString encoded;
+
+        private LazyEncoding(Object decoded, NodeId encodingTypeId) {
+            this.decoded = decoded;
+            this.encodingTypeId = encodingTypeId;
+        }
+
+        private ByteString encoded() {
+            ByteString e = encoded;
+
+            if (e == null && decoded != null) {
+                encoded = e = DataTypeEncoding.OPC_UA.encodeToByteString(decoded, encodingTypeId);
+            }
+
+            return e;
+        }
+
+    }
+
 }
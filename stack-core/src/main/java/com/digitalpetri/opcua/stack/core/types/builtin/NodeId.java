@@ -21,6 +21,7 @@ import java.util.UUID;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.xml.bind.DatatypeConverter;
 
 import com.digitalpetri.opcua.stack.core.StatusCodes;
@@ -29,6 +30,7 @@ import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UInteger;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UShort;
 import com.digitalpetri.opcua.stack.core.types.enumerated.IdType;
 import com.google.common.base.MoreObjects;
+import io.netty.buffer.ByteBuf;
 
 import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
 import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
@@ -46,6 +48,8 @@ public final class NodeId {
     private final UShort namespaceIndex;
     private final Object identifier;
 
+    private volatile byte[] binaryEncoding;
+
     /**
      * @param namespaceIndex the index for a namespace URI. An index of 0 is used for OPC UA defined NodeIds.
      * @param identifier     the identifier for a node in the address space of an OPC UA Server.
@@ -147,6 +151,51 @@ public final class NodeId {
         }
     }
 
+    /**
+     * Write the OPC UA binary encoding of this NodeId to {@code buffer}, if it has a numeric identifier.
+     * <p>
+     * The encoding is computed on first use and cached, so NodeIds that are encoded repeatedly, such as the type and
+     * encoding ids in {@link com.digitalpetri.opcua.stack.core.Identifiers}, are copied directly into the buffer.
+     *
+     * @param buffer the buffer to write the encoding to.
+     * @return {@code true} if the encoding was written, or {@code false} if the identifier is not numeric and nothing
+     * was written.
+     */
+    public boolean writeBinaryEncoding(ByteBuf buffer) {
+        byte[] encoding = binaryEncoding;
+
+        if (encoding == null) {
+            if (!(identifier instanceof UInteger)) return false;
+
+            encoding = encodeNumeric(namespaceIndex.intValue(), ((UInteger) identifier).longValue());
+            binaryEncoding = encoding;
+        }
+
+        buffer.writeBytes(encoding);
+
+        return true;
+    }
+
+    private static byte[] encodeNumeric(int namespaceIndex, long identifier) {
+        if (namespaceIndex == 0 && identifier <= 255) {
+            /* Two-byte format */
+            return new byte[]{0x00, (byte) identifier};
+        } else if (namespaceIndex <= 255 && identifier <= 65535) {
+            /* Four-byte format */
+            return new byte[]{
+                    0x01,
+                    (byte) namespaceIndex,
+                    (byte) identifier, (byte) (identifier >>> 8)};
+        } else {
+            /* Numeric format */
+            return new byte[]{
+                    0x02,
+                    (byte) namespaceIndex, (byte) (namespaceIndex >>> 8),
+                    (byte) identifier, (byte) (identifier >>> 8),
+                    (byte) (identifier >>> 16), (byte) (identifier >>> 24)};
+        }
+    }
+
     public ExpandedNodeId expanded() {
         return new ExpandedNodeId(this);
     }
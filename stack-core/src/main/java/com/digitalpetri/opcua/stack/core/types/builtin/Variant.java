@@ -28,6 +28,10 @@ import com.digitalpetri.opcua.stack.core.util.ArrayUtil;
 import com.digitalpetri.opcua.stack.core.util.TypeUtil;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.MoreObjects.ToStringHelper;
+import com.google.common.primitives.Doubles;
+import com.google.common.primitives.Floats;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
@@ -37,6 +41,12 @@ public final class Variant {
 
     private final Object value;
 
+    /**
+     * Set only for a Variant created by one of the primitive array factory methods. Kept out of line so that other
+     * Variants, the common case, only ever read final fields.
+     */
+    private final PrimitiveArray primitiveArray;
+
     /**
      * Create a new Variant with a given value.
      *
@@ -55,9 +65,55 @@ public final class Variant {
         }
 
         this.value = value;
+        this.primitiveArray = null;
+    }
+
+    private Variant(PrimitiveArray primitiveArray) {
+        this.value = null;
+        this.primitiveArray = primitiveArray;
+    }
+
+    /**
+     * Create a Variant backed by a double[] that {@link #getValue()} presents as a Double[], the same as a decoded
+     * Double array, but that {@link #getDoubleArray()} and the encoders access without boxing.
+     *
+     * @param values the array backing the Variant. It is not copied.
+     * @return a Variant backed by {@code values}.
+     */
+    public static Variant ofDoubles(double[] values) {
+        return new Variant(new PrimitiveArray(values));
+    }
+
+    /**
+     * @param values the array backing the Variant. It is not copied.
+     * @return a Variant backed by {@code values}.
+     * @see #ofDoubles(double[])
+     */
+    public static Variant ofFloats(float[] values) {
+        return new Variant(new PrimitiveArray(values));
+    }
+
+    /**
+     * @param values the array backing the Variant. It is not copied.
+     * @return a Variant backed by {@code values}.
+     * @see #ofDoubles(double[])
+     */
+    public static Variant ofInts(int[] values) {
+        return new Variant(new PrimitiveArray(values));
+    }
+
+    /**
+     * @param values the array backing the Variant. It is not copied.
+     * @return a Variant backed by {@code values}.
+     * @see #ofDoubles(double[])
+     */
+    public static Variant ofLongs(long[] values) {
+        return new Variant(new PrimitiveArray(values));
     }
 
     public Optional<NodeId> getDataType() {
+        Object value = getRawValue();
+
         if (value == null) return Optional.empty();
 
         if (value instanceof UaStructure) {
@@ -76,11 +132,71 @@ public final class Variant {
     }
 
     public Object getValue() {
-        return value;
+        return primitiveArray != null ? primitiveArray.boxed() : value;
+    }
+
+    /**
+     * @return the value as it is held, i.e. without boxing the array backing a Variant created by one of the
+     * primitive array factory methods.
+     */
+    public Object getRawValue() {
+        return primitiveArray != null ? primitiveArray.array : value;
+    }
+
+    /**
+     * @return the value as a double[], without copying if it is one already, or null if the value is not a
+     * one-dimensional Double array.
+     */
+    @Nullable
+    public double[] getDoubleArray() {
+        Object v = getRawValue();
+
+        if (v instanceof double[]) return (double[]) v;
+        else if (v instanceof Double[]) return Doubles.toArray(Arrays.asList((Double[]) v));
+        else return null;
+    }
+
+    /**
+     * @return the value as a float[], without copying if it is one already, or null if the value is not a
+     * one-dimensional Float array.
+     */
+    @Nullable
+    public float[] getFloatArray() {
+        Object v = getRawValue();
+
+        if (v instanceof float[]) return (float[]) v;
+        else if (v instanceof Float[]) return Floats.toArray(Arrays.asList((Float[]) v));
+        else return null;
+    }
+
+    /**
+     * @return the value as an int[], without copying if it is one already, or null if the value is not a
+     * one-dimensional Int32 array.
+     */
+    @Nullable
+    public int[] getIntArray() {
+        Object v = getRawValue();
+
+        if (v instanceof int[]) return (int[]) v;
+        else if (v instanceof Integer[]) return Ints.toArray(Arrays.asList((Integer[]) v));
+        else return null;
+    }
+
+    /**
+     * @return the value as a long[], without copying if it is one already, or null if the value is not a
+     * one-dimensional Int64 array.
+     */
+    @Nullable
+    public long[] getLongArray() {
+        Object v = getRawValue();
+
+        if (v instanceof long[]) return (long[]) v;
+        else if (v instanceof Long[]) return Longs.toArray(Arrays.asList((Long[]) v));
+        else return null;
     }
 
     public boolean isNull() {
-        return value == null;
+        return value == null && primitiveArray == null;
     }
 
     public boolean isNotNull() {
@@ -94,7 +210,7 @@ public final class Variant {
 
         Variant variant = (Variant) o;
 
-        return Objects.deepEquals(value, variant.value);
+        return Objects.deepEquals(getValue(), variant.getValue());
     }
 
     @Override
@@ -103,6 +219,8 @@ public final class Variant {
     }
 
     private int valueHash() {
+        Object value = getValue();
+
         if (value instanceof Object[]) {
             return Arrays.deepHashCode((Object[]) value);
         } else if (value instanceof boolean[]) {
@@ -128,9 +246,49 @@ public final class Variant {
     public String toString() {
         ToStringHelper helper = MoreObjects.toStringHelper(this);
 
-        helper.add("value", value);
+        helper.add("value", getValue());
 
         return helper.toString();
     }
 
+    private static final class PrimitiveArray {
+
+        /**
+         * The one-dimensional double[], float[], int[] or long[] backing the Variant.
+         */
+        private final Object array;
+
+        /**
+         * {@link #array} boxed, on first access by {@link #getValue()}.
+         */
+        private volatile Object boxed;
+
+        private PrimitiveArray(Object array) {
+            this.array = array;
+        }
+
+        private Object boxed() {
+            Object b = boxed;
+
+            if (b == null) {
+                boxed = b = box(array);
+            }
+
+            return b;
+        }
+
+        private static Object box(Object array) {
+            if (array instanceof double[]) {
+                return Doubles.asList((double[]) array).toArray(new Double[0]);
+            } else if (array instanceof float[]) {
+                return Floats.asList((float[]) array).toArray(new Float[0]);
+            } else if (array instanceof int[]) {
+                return Ints.asList((int[]) array).toArray(new Integer[0]);
+            } else {
+                return Longs.asList((long[]) array).toArray(new Long[0]);
+            }
+        }
+
+    }
+
 }
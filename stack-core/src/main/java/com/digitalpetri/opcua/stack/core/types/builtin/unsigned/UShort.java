@@ -41,6 +41,16 @@ public final class UShort extends UNumber implements Comparable<UShort> {
      */
     private static final long serialVersionUID = -6821055240959745390L;
 
+    /**
+     * System property name for the property to set the size of the pre-cache.
+     */
+    private static final String PRECACHE_PROPERTY = UShort.class.getName() + ".precacheSize";
+
+    /**
+     * Default size for the value cache.
+     */
+    private static final int DEFAULT_PRECACHE_SIZE = 256;
+
     /**
      * A constant holding the minimum value an <code>unsigned short</code> can
      * have, 0.
@@ -58,6 +68,42 @@ public final class UShort extends UNumber implements Comparable<UShort> {
      */
     private final int         value;
 
+    /**
+     * Cached values
+     */
+    private static final UShort[] VALUES = mkValues();
+
+    /**
+     * Figure out the size of the precache.
+     *
+     * @return The value of the system property {@link #PRECACHE_PROPERTY},
+     *         clamped to the range of an <code>unsigned short</code>, or
+     *         {@link #DEFAULT_PRECACHE_SIZE} if the property is not set, not
+     *         a number or retrieving results in a {@link SecurityException}.
+     */
+    private static int getPrecacheSize() {
+        try {
+            int size = Integer.getInteger(PRECACHE_PROPERTY, DEFAULT_PRECACHE_SIZE);
+
+            return Math.max(0, Math.min(size, MAX_VALUE + 1));
+        } catch (SecurityException e) {
+            return DEFAULT_PRECACHE_SIZE;
+        }
+    }
+
+    /**
+     * Generate a cached value for initial unsigned short values.
+     *
+     * @return Array of cached values for UShort
+     */
+    private static UShort[] mkValues() {
+        UShort[] ret = new UShort[getPrecacheSize()];
+
+        for (int i = 0; i < ret.length; i++)
+            ret[i] = new UShort(i);
+        return ret;
+    }
+
     /**
      * Create an <code>unsigned short</code>
      *
@@ -74,6 +120,10 @@ public final class UShort extends UNumber implements Comparable<UShort> {
      * <code>(ushort) 65535</code>
      */
     public static UShort valueOf(short value) {
+        int masked = value & MAX_VALUE;
+
+        if (masked < VALUES.length)
+            return VALUES[masked];
         return new UShort(value);
     }
 
@@ -84,6 +134,8 @@ public final class UShort extends UNumber implements Comparable<UShort> {
      *             of an <code>unsigned short</code>
      */
     public static UShort valueOf(int value) throws NumberFormatException {
+        if (value >= 0 && value < VALUES.length)
+            return VALUES[value];
         return new UShort(value);
     }
 
@@ -39,4 +39,8 @@ public class BufferUtil {
         return allocator.compositeBuffer();
     }
 
+    public static CompositeByteBuf compositeBuffer(int maxNumComponents) {
+        return allocator.compositeBuffer(maxNumComponents);
+    }
+
 }
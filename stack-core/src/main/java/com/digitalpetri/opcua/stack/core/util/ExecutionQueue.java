@@ -16,8 +16,10 @@
 
 package com.digitalpetri.opcua.stack.core.util;
 
-import java.util.LinkedList;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,21 +27,41 @@ import org.slf4j.LoggerFactory;
 /**
  * Queues up submitted {@link java.lang.Runnable}s and executes them in serial on an
  * {@link java.util.concurrent.ExecutorService}.
+ * <p>
+ * Any number of threads may submit concurrently without locking. At most one drain task is scheduled on the
+ * executor at a time, and it executes up to {@link #DEFAULT_MAX_BATCH_SIZE} queued {@link Runnable}s before handing
+ * the executor thread back.
  */
 public class ExecutionQueue {
 
+    /**
+     * The default maximum number of {@link Runnable}s executed per hop onto the executor.
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 64;
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
-    private final Object queueLock = new Object();
-    private final LinkedList<Runnable> queue = new LinkedList<>();
+    private final ConcurrentLinkedDeque<Runnable> queue = new ConcurrentLinkedDeque<>();
+
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    private final Runnable drain = this::drain;
 
-    private volatile boolean pollSubmitted = false;
     private volatile boolean paused = false;
 
     private final ExecutorService service;
+    private final int maxBatchSize;
 
     public ExecutionQueue(ExecutorService service) {
+        this(service, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * @param service      the {@link ExecutorService} to execute on.
+     * @param maxBatchSize the maximum number of {@link Runnable}s to execute per hop onto {@code service}.
+     */
+    public ExecutionQueue(ExecutorService service, int maxBatchSize) {
         this.service = service;
+        this.maxBatchSize = maxBatchSize;
     }
 
     /**
@@ -48,11 +70,9 @@ public class ExecutionQueue {
      * @param runnable the {@link Runnable} to be executed.
      */
     public void submit(Runnable runnable) {
-        synchronized (queueLock) {
-            queue.add(runnable);
+        queue.addLast(runnable);
 
-            maybeSubmitPoll();
-        }
+        maybeScheduleDrain();
     }
 
     /**
@@ -61,66 +81,57 @@ public class ExecutionQueue {
      * @param runnable the {@link Runnable} to be executed.
      */
     public void submitToHead(Runnable runnable) {
-        synchronized (queueLock) {
-            queue.addFirst(runnable);
+        queue.addFirst(runnable);
 
-            maybeSubmitPoll();
-        }
+        maybeScheduleDrain();
     }
 
     /**
      * Pause execution of queued {@link java.lang.Runnable}s.
      */
     public void pause() {
-        synchronized (queueLock) {
-            paused = true;
-        }
+        paused = true;
     }
 
     /**
      * Resume execution of queued {@link java.lang.Runnable}s.
      */
     public void resume() {
-        synchronized (queueLock) {
-            paused = false;
+        paused = false;
 
-            maybeSubmitPoll();
-        }
+        maybeScheduleDrain();
     }
 
-    private void maybeSubmitPoll() {
-        synchronized (queueLock) {
-            if (!pollSubmitted && !paused && !queue.isEmpty()) {
-                service.submit(new PollAndExecute());
-                pollSubmitted = true;
+    private void maybeScheduleDrain() {
+        if (!paused && !queue.isEmpty() && drainScheduled.compareAndSet(false, true)) {
+            try {
+                service.execute(drain);
+            } catch (RejectedExecutionException e) {
+                drainScheduled.set(false);
+                throw e;
             }
         }
     }
 
-    private class PollAndExecute implements Runnable {
-        @Override
-        public void run() {
-            Runnable runnable;
-
-            synchronized (queueLock) {
-                runnable = queue.poll();
-            }
+    private void drain() {
+        for (int i = 0; i < maxBatchSize && !paused; i++) {
+            Runnable runnable = queue.pollFirst();
+            if (runnable == null) break;
 
             try {
                 runnable.run();
             } catch (Throwable throwable) {
                 log.warn("Uncaught Throwable during execution.", throwable);
             }
-
-            synchronized (queueLock) {
-                if (queue.isEmpty() || paused) {
-                    pollSubmitted = false;
-                } else {
-                    // polling remains true
-                    service.submit(new PollAndExecute());
-                }
-            }
         }
+
+        drainScheduled.set(false);
+
+        /*
+         * A producer that saw drainScheduled == true after the last poll above relies on this check to get its
+         * Runnable executed.
+         */
+        maybeScheduleDrain();
     }
 
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.serialization;
+
+import com.digitalpetri.opcua.stack.core.Identifiers;
+import com.digitalpetri.opcua.stack.core.UaSerializationException;
+import com.digitalpetri.opcua.stack.core.types.builtin.NodeId;
+import com.digitalpetri.opcua.stack.core.types.structured.ReadRequest;
+import com.digitalpetri.opcua.stack.core.types.structured.ReadValueId;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertSame;
+
+public class DelegateRegistryTest {
+
+    @Test
+    public void testGeneratedTypesAreRegistered() {
+        assertNotNull(DelegateRegistry.getEncoder(new ReadValueId()));
+        assertNotNull(DelegateRegistry.getDecoder(ReadValueId.class));
+    }
+
+    @Test
+    public void testDecodersByEncodingId() {
+        assertSame(
+                DelegateRegistry.getDecoder(Identifiers.ReadRequest_Encoding_DefaultBinary),
+                DelegateRegistry.getDecoder(ReadRequest.class));
+
+        DecoderDelegate<Replaced> ns0 = decoder -> null;
+        DecoderDelegate<Replaced> ns0AboveLimit = decoder -> null;
+        DecoderDelegate<Replaced> ns2 = decoder -> null;
+
+        DelegateRegistry.registerDecoder(ns0, Replaced.class, new NodeId(0, DelegateRegistry.NS0_ID_LIMIT - 1));
+        DelegateRegistry.registerDecoder(ns0AboveLimit, Replaced.class, new NodeId(0, DelegateRegistry.NS0_ID_LIMIT));
+        DelegateRegistry.registerDecoder(ns2, Replaced.class, new NodeId(2, DelegateRegistry.NS0_ID_LIMIT - 1));
+
+        assertSame(DelegateRegistry.getDecoder(new NodeId(0, DelegateRegistry.NS0_ID_LIMIT - 1)), ns0);
+        assertSame(DelegateRegistry.getDecoder(new NodeId(0, DelegateRegistry.NS0_ID_LIMIT)), ns0AboveLimit);
+        assertSame(DelegateRegistry.getDecoder(new NodeId(2, DelegateRegistry.NS0_ID_LIMIT - 1)), ns2);
+    }
+
+    @Test(expectedExceptions = UaSerializationException.class)
+    public void testUnregisteredEncodingIdThrows() {
+        DelegateRegistry.getDecoder(new NodeId(0, DelegateRegistry.NS0_ID_LIMIT - 2));
+    }
+
+    @Test(expectedExceptions = UaSerializationException.class)
+    public void testUnregisteredClassThrows() {
+        DelegateRegistry.getDecoder(Unregistered.class);
+    }
+
+    @Test
+    public void testRegistrationReplacesCachedDelegate() {
+        EncoderDelegate<Replaced> first = (value, encoder) -> {};
+        EncoderDelegate<Replaced> second = (value, encoder) -> {};
+
+        DelegateRegistry.registerEncoder(first, Replaced.class);
+        assertSame(DelegateRegistry.getEncoder(Replaced.class), first);
+
+        DelegateRegistry.registerEncoder(second, Replaced.class);
+        assertSame(DelegateRegistry.getEncoder(Replaced.class), second);
+    }
+
+    private static class Unregistered {
+    }
+
+    private static class Replaced {
+    }
+
+}
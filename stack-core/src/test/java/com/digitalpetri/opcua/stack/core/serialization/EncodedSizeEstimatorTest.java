@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.serialization;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class EncodedSizeEstimatorTest {
+
+    @Test
+    public void testUnseenClassUsesDefault() {
+        EncodedSizeEstimator estimator = new EncodedSizeEstimator(1 << 20);
+
+        assertEquals(estimator.estimate("message"), EncodedSizeEstimator.DEFAULT_ESTIMATE);
+    }
+
+    @Test
+    public void testEstimateConvergesWithHeadroom() {
+        EncodedSizeEstimator estimator = new EncodedSizeEstimator(1 << 20);
+
+        for (int i = 0; i < 100; i++) {
+            estimator.update("message", 100000);
+        }
+
+        int estimate = estimator.estimate("message");
+        assertTrue(estimate >= 100000, "estimate=" + estimate);
+        assertTrue(estimate <= 125000, "estimate=" + estimate);
+
+        for (int i = 0; i < 100; i++) {
+            estimator.update("message", 1000);
+        }
+
+        assertEquals(estimator.estimate("message"), 1250);
+    }
+
+    @Test
+    public void testOneLargeMessageDoesNotInflateLaterEstimates() {
+        EncodedSizeEstimator estimator = new EncodedSizeEstimator(4 << 20);
+
+        for (int i = 0; i < 100; i++) {
+            estimator.update("message", 200);
+        }
+
+        estimator.update("message", 2 << 20);
+
+        // The average has jumped, but the next estimate is still bounded by it rather than by the large size.
+        int estimate = estimator.estimate("message");
+        assertTrue(estimate < (2 << 20) / 4, "estimate=" + estimate);
+
+        estimator.update("message", 200);
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(estimator.estimate("message"), EncodedSizeEstimator.DEFAULT_ESTIMATE);
+            estimator.update("message", 200);
+        }
+    }
+
+    @Test
+    public void testEstimateIsCapped() {
+        EncodedSizeEstimator estimator = new EncodedSizeEstimator(4096);
+
+        estimator.update("message", 1 << 20);
+
+        assertEquals(estimator.estimate("message"), 4096);
+    }
+
+}
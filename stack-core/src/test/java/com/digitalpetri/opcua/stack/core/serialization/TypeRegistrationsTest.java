@@ -0,0 +1,86 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.serialization;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.digitalpetri.opcua.stack.core.Identifiers;
+import com.digitalpetri.opcua.stack.core.types.builtin.NodeId;
+import com.google.common.reflect.ClassPath;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class TypeRegistrationsTest {
+
+    @Test
+    public void testEnumeratedTypesAreIndexed() throws Exception {
+        assertEquals(
+                indexed(TypeRegistrations.ENUMERATED_PACKAGE, TypeRegistrations.ENUMERATED_TYPES),
+                scanned(TypeRegistrations.ENUMERATED_PACKAGE));
+    }
+
+    @Test
+    public void testStructuredTypesAreIndexed() throws Exception {
+        assertEquals(
+                indexed(TypeRegistrations.STRUCTURED_PACKAGE, TypeRegistrations.STRUCTURED_TYPES),
+                scanned(TypeRegistrations.STRUCTURED_PACKAGE));
+    }
+
+    @Test
+    public void testEncodingIdsMatchGeneratedTypes() throws Exception {
+        assertEquals(TypeRegistrations.STRUCTURED_ENCODING_IDS.length, TypeRegistrations.STRUCTURED_TYPES.length * 2);
+
+        for (int i = 0; i < TypeRegistrations.STRUCTURED_TYPES.length; i++) {
+            String name = TypeRegistrations.STRUCTURED_PACKAGE + "." + TypeRegistrations.STRUCTURED_TYPES[i];
+            Class<?> clazz = Class.forName(name);
+
+            NodeId binaryEncodingId = (NodeId) clazz.getField("BinaryEncodingId").get(null);
+            NodeId xmlEncodingId = (NodeId) clazz.getField("XmlEncodingId").get(null);
+
+            assertEquals(new NodeId(0, TypeRegistrations.STRUCTURED_ENCODING_IDS[i * 2]), binaryEncodingId, name);
+            assertEquals(new NodeId(0, TypeRegistrations.STRUCTURED_ENCODING_IDS[i * 2 + 1]), xmlEncodingId, name);
+
+            assertEquals(TypeRegistrations.structuredTypeName(binaryEncodingId), name);
+            assertEquals(TypeRegistrations.structuredTypeName(xmlEncodingId), name);
+        }
+    }
+
+    @Test
+    public void testUnknownEncodingIdHasNoType() {
+        assertNull(TypeRegistrations.structuredTypeName(Identifiers.ReadRequest));
+        assertNull(TypeRegistrations.structuredTypeName(new NodeId(1, 631)));
+        assertNull(TypeRegistrations.structuredTypeName(new NodeId(0, "ReadRequest_Encoding_DefaultBinary")));
+    }
+
+    private static Set<String> indexed(String packageName, String[] names) {
+        return Arrays.stream(names)
+                .map(name -> packageName + "." + name)
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<String> scanned(String packageName) throws Exception {
+        return ClassPath.from(TypeRegistrationsTest.class.getClassLoader())
+                .getTopLevelClasses(packageName).stream()
+                .map(ClassPath.ClassInfo::getName)
+                .collect(Collectors.toSet());
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.serialization.binary;
+
+import com.digitalpetri.opcua.stack.core.types.builtin.ByteString;
+import io.netty.buffer.Unpooled;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class ByteStringSerializationTest extends BinarySerializationFixture {
+
+    @DataProvider
+    public Object[][] getByteStrings() {
+        return new Object[][]{
+                {ByteString.NULL_VALUE},
+                {new ByteString(new byte[0])},
+                {new ByteString(new byte[]{1, 2, 3, 4})}
+        };
+    }
+
+    @Test(dataProvider = "getByteStrings")
+    public void testByteStringRoundTrip(ByteString byteString) {
+        encoder.encodeByteString(null, byteString);
+        encoder.encodeByteString(null, byteString);
+
+        assertEquals(decoder.decodeByteString(null), byteString);
+
+        decoder.setZeroCopyByteStrings(true);
+        ByteString decoded = decoder.decodeByteString(null);
+        assertEquals(decoded, byteString);
+        decoded.release();
+
+        assertEquals(buffer.refCnt(), 1);
+    }
+
+    @Test
+    public void testZeroCopyByteStringViewsBuffer() {
+        encoder.encodeByteString(null, new ByteString(new byte[]{1, 2, 3, 4}));
+
+        ByteString decoded = decoder.setZeroCopyByteStrings(true).decodeByteString(null);
+
+        assertTrue(decoded.isBuffered());
+        assertEquals(decoded.length(), 4);
+        assertEquals(buffer.refCnt(), 2);
+
+        buffer.setByte(4, 42);
+        assertEquals(decoded.byteAt(0), 42);
+
+        ByteString copy = decoded.copy();
+        assertFalse(copy.isBuffered());
+        assertSame(copy.copy(), copy);
+
+        buffer.setByte(4, 1);
+        assertEquals(copy.bytes(), new byte[]{42, 2, 3, 4});
+
+        decoded.release();
+        assertEquals(buffer.refCnt(), 1);
+        assertFalse(copy.release());
+    }
+
+    @Test
+    public void testZeroCopyByteStringEqualityAndToString() {
+        ByteString byteString = new ByteString(new byte[]{1, 2, 3, 4});
+        encoder.encodeByteString(null, byteString);
+
+        ByteString decoded = decoder.setZeroCopyByteStrings(true).decodeByteString(null);
+
+        assertEquals(decoded, byteString);
+        assertEquals(byteString, decoded);
+        assertEquals(decoded.hashCode(), byteString.hashCode());
+        assertNotEquals(decoded, new ByteString(new byte[]{1, 2, 3}));
+        assertNotEquals(decoded, ByteString.NULL_VALUE);
+
+        decoded.release();
+    }
+
+    @Test
+    public void testReleasedByteStringToString() {
+        ByteString wrapped = ByteString.wrap(Unpooled.wrappedBuffer(new byte[]{1, 2, 3, 4}));
+
+        assertEquals(wrapped.toString(), new ByteString(new byte[]{1, 2, 3, 4}).toString());
+
+        ByteString released = ByteString.wrap(Unpooled.wrappedBuffer(new byte[]{1, 2, 3, 4}));
+        assertTrue(released.release());
+        assertEquals(released.toString(), "ByteString{length=4, released=true}");
+
+        assertTrue(wrapped.release());
+        assertEquals(wrapped.toString(), "ByteString{bytes=[1, 2, 3, 4]}");
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.serialization.binary;
+
+import java.nio.ByteOrder;
+
+import com.digitalpetri.opcua.stack.core.StatusCodes;
+import com.digitalpetri.opcua.stack.core.types.builtin.DataValue;
+import com.digitalpetri.opcua.stack.core.types.builtin.DataValueBatch;
+import com.digitalpetri.opcua.stack.core.types.builtin.DateTime;
+import com.digitalpetri.opcua.stack.core.types.structured.MonitoredItemNotification;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.testng.annotations.Test;
+
+import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.testng.Assert.assertEquals;
+
+public class DataValueBatchSerializationTest extends BinarySerializationFixture {
+
+    @Test
+    public void testBatchEncodesAsDataValueArray() {
+        long now = DateTime.now().getUtcTime();
+
+        DataValueBatch batch = new DataValueBatch(2);
+        batch.add(42.0d, 0L, now, now);
+        batch.add(null, StatusCodes.Bad_NodeIdUnknown, 0L, now);
+        batch.add(new String[]{"a", "b", "c"}, 0L, now, 0L);
+        batch.add("foo", StatusCodes.Uncertain_InitialValue, 0L, 0L);
+
+        encoder.encodeDataValueBatch(null, batch);
+
+        DataValue[] expected = new DataValue[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            expected[i] = batch.getDataValue(i);
+        }
+
+        ByteBuf expectedBuffer = Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
+        BinaryEncoder expectedEncoder = new BinaryEncoder().setBuffer(expectedBuffer);
+        expectedEncoder.encodeArray(null, expected, expectedEncoder::encodeDataValue);
+
+        assertEquals(buffer, expectedBuffer);
+
+        DataValue[] decoded = decoder.decodeArray(null, decoder::decodeDataValue, DataValue.class);
+
+        assertEquals(decoded.length, expected.length);
+        for (int i = 0; i < decoded.length; i++) {
+            assertEquals(decoded[i].getValue(), expected[i].getValue());
+            assertEquals(decoded[i].getStatusCode(), expected[i].getStatusCode());
+            assertEquals(decoded[i].getSourceTime(), expected[i].getSourceTime());
+            assertEquals(decoded[i].getServerTime(), expected[i].getServerTime());
+        }
+    }
+
+    @Test
+    public void testBatchEncodesMonitoredItemNotifications() {
+        long now = DateTime.now().getUtcTime();
+
+        DataValueBatch batch = new DataValueBatch();
+        batch.add(42.0d, 0L, now, now);
+        batch.add(null, StatusCodes.Bad_NodeIdUnknown, 0L, now);
+        batch.add("foo", 0L, now, 0L);
+
+        long[] clientHandles = {7L, 8L, 9L};
+
+        // Each notification's DataValue comes straight from the batch, interleaved with its clientHandle.
+        buffer.writeInt(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            encoder.encodeUInt32(null, clientHandles[i]);
+            encoder.encodeDataValue(null, batch, i);
+        }
+
+        MonitoredItemNotification[] expected = new MonitoredItemNotification[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            expected[i] = new MonitoredItemNotification(uint(clientHandles[i]), batch.getDataValue(i));
+        }
+
+        ByteBuf expectedBuffer = Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
+        BinaryEncoder expectedEncoder = new BinaryEncoder().setBuffer(expectedBuffer);
+        expectedEncoder.encodeArray(null, expected, (f, n) -> MonitoredItemNotification.encode(n, expectedEncoder));
+
+        assertEquals(buffer, expectedBuffer);
+    }
+
+    @Test
+    public void testClearAndReuse() {
+        DataValueBatch batch = new DataValueBatch(1);
+
+        for (int i = 0; i < 100; i++) {
+            batch.add(i, 0L, 0L, 0L);
+        }
+        assertEquals(batch.size(), 100);
+
+        batch.clear();
+        batch.add(new DataValue(StatusCodes.Bad_Timeout));
+
+        assertEquals(batch.size(), 1);
+        assertEquals(batch.getStatusCode(0), StatusCodes.Bad_Timeout);
+        assertEquals(batch.getValue(0), null);
+
+        encoder.encodeDataValueBatch(null, batch);
+
+        DataValue[] decoded = decoder.decodeArray(null, decoder::decodeDataValue, DataValue.class);
+        assertEquals(decoded.length, 1);
+        assertEquals(decoded[0].getStatusCode().getValue(), StatusCodes.Bad_Timeout);
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void testIndexBeyondSize() {
+        DataValueBatch batch = new DataValueBatch();
+        batch.add(1, 0L, 0L, 0L);
+        batch.clear();
+
+        batch.getValue(0);
+    }
+
+}
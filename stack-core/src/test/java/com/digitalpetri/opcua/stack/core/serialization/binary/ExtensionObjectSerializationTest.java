@@ -16,14 +16,24 @@
 
 package com.digitalpetri.opcua.stack.core.serialization.binary;
 
+import java.nio.ByteOrder;
+
+import com.digitalpetri.opcua.stack.core.AttributeId;
+import com.digitalpetri.opcua.stack.core.serialization.DelegateRegistry;
 import com.digitalpetri.opcua.stack.core.types.builtin.ByteString;
 import com.digitalpetri.opcua.stack.core.types.builtin.ExtensionObject;
 import com.digitalpetri.opcua.stack.core.types.builtin.NodeId;
+import com.digitalpetri.opcua.stack.core.types.builtin.QualifiedName;
 import com.digitalpetri.opcua.stack.core.types.builtin.XmlElement;
+import com.digitalpetri.opcua.stack.core.types.structured.ReadValueId;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class ExtensionObjectSerializationTest extends BinarySerializationFixture {
 
@@ -43,4 +53,107 @@ public class ExtensionObjectSerializationTest extends BinarySerializationFixture
         assertEquals(decoded, xo);
     }
 
+    @Test
+    public void testEagerDecoding() throws Exception {
+        ReadValueId readValueId = new ReadValueId(
+                new NodeId(2, "foo"), AttributeId.Value.uid(), "1:2", QualifiedName.NULL_VALUE);
+
+        ExtensionObject xo = ExtensionObject.encode(readValueId);
+
+        encoder.encodeExtensionObject(null, xo);
+        encoder.encodeInt32(null, 42);
+
+        ExtensionObject decoded = decoder.setEagerExtensionObjects(true).decodeExtensionObject(null);
+        ReadValueId decodedValue = (ReadValueId) decoded.decode();
+
+        assertEquals(decodedValue.getNodeId(), readValueId.getNodeId());
+        assertEquals(decodedValue.getAttributeId(), readValueId.getAttributeId());
+        assertEquals(decodedValue.getIndexRange(), readValueId.getIndexRange());
+        assertEquals(decodedValue.getDataEncoding(), readValueId.getDataEncoding());
+        assertEquals(decoder.decodeInt32(null), Integer.valueOf(42));
+
+        assertEquals(decoded.getEncoded(), xo.getEncoded());
+        assertEquals(decoded, xo);
+    }
+
+    @Test
+    public void testEagerDecodingFallsBackToByteString() throws Exception {
+        ExtensionObject unknown = new ExtensionObject(ByteString.of(new byte[]{1, 2, 3, 4}), new NodeId(1, 2));
+        ExtensionObject corrupt = new ExtensionObject(ByteString.of(new byte[]{1, 2, 3}), ReadValueId.BinaryEncodingId);
+
+        encoder.encodeExtensionObject(null, unknown);
+        encoder.encodeExtensionObject(null, corrupt);
+
+        decoder.setEagerExtensionObjects(true);
+
+        ExtensionObject decodedUnknown = decoder.decodeExtensionObject(null);
+        ExtensionObject decodedCorrupt = decoder.decodeExtensionObject(null);
+
+        assertEquals(decodedUnknown, unknown);
+        assertEquals(decodedCorrupt, corrupt);
+        assertTrue(decodedCorrupt.getEncoded() instanceof ByteString);
+        assertEquals(buffer.readableBytes(), 0);
+    }
+
+    @Test
+    public void testEagerDecodingFallsBackWhenDecoderFails() throws Exception {
+        NodeId encodingId = new NodeId(2, "FailingStructure_Encoding_DefaultBinary");
+
+        DelegateRegistry.registerDecoder(d -> {
+            throw new IllegalStateException("decoder bug");
+        }, FailingStructure.class, encodingId);
+
+        ExtensionObject xo = new ExtensionObject(ByteString.of(new byte[]{1, 2, 3, 4}), encodingId);
+
+        encoder.encodeExtensionObject(null, xo);
+
+        ExtensionObject decoded = decoder.setEagerExtensionObjects(true).decodeExtensionObject(null);
+
+        assertEquals(decoded, xo);
+        assertTrue(decoded.getEncoded() instanceof ByteString);
+        assertEquals(buffer.readableBytes(), 0);
+    }
+
+    private static final class FailingStructure {}
+
+    @Test
+    public void testDeferredEncoding() throws Exception {
+        ReadValueId readValueId = new ReadValueId(
+                new NodeId(2, "foo"), AttributeId.Value.uid(), null, QualifiedName.NULL_VALUE);
+
+        ExtensionObject deferred = ExtensionObject.encodeDeferred(readValueId);
+
+        encoder.encodeExtensionObject(null, deferred);
+        assertFalse(deferred.isEncoded());
+
+        ByteBuf expected = Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
+        new BinaryEncoder().setBuffer(expected).encodeExtensionObject(null, ExtensionObject.encode(readValueId));
+
+        assertEquals(buffer, expected);
+
+        ExtensionObject decoded = decoder.decodeExtensionObject(null);
+        assertEquals(decoded, deferred);
+        assertTrue(deferred.isEncoded());
+    }
+
+    @Test
+    public void testDecodedBodyIsNotEncodedForEqualityOrToString() throws Exception {
+        ReadValueId readValueId = new ReadValueId(
+                new NodeId(2, "foo"), AttributeId.Value.uid(), null, QualifiedName.NULL_VALUE);
+
+        ExtensionObject a = ExtensionObject.encodeDeferred(readValueId);
+        ExtensionObject b = ExtensionObject.ofDecoded(readValueId, ReadValueId.BinaryEncodingId);
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertTrue(a.toString().contains(readValueId.toString()));
+        assertFalse(a.isEncoded());
+        assertFalse(b.isEncoded());
+
+        ExtensionObject encoded = ExtensionObject.encode(readValueId);
+        assertEquals(encoded.hashCode(), a.hashCode());
+        assertEquals(a, encoded);
+        assertTrue(a.isEncoded());
+    }
+
 }
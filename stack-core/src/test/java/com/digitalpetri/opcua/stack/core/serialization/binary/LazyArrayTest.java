@@ -0,0 +1,131 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.serialization.binary;
+
+import java.util.Iterator;
+
+import com.digitalpetri.opcua.stack.core.types.builtin.ByteString;
+import com.digitalpetri.opcua.stack.core.types.builtin.DataValue;
+import com.digitalpetri.opcua.stack.core.types.builtin.DateTime;
+import com.digitalpetri.opcua.stack.core.types.builtin.DiagnosticInfo;
+import com.digitalpetri.opcua.stack.core.types.builtin.StatusCode;
+import com.digitalpetri.opcua.stack.core.types.builtin.Variant;
+import com.digitalpetri.opcua.stack.core.types.structured.BrowseResponse;
+import com.digitalpetri.opcua.stack.core.types.structured.BrowseResult;
+import com.digitalpetri.opcua.stack.core.types.structured.ReadResponse;
+import com.digitalpetri.opcua.stack.core.types.structured.ResponseHeader;
+import org.testng.annotations.Test;
+
+import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class LazyArrayTest extends BinarySerializationFixture {
+
+    private final ResponseHeader responseHeader =
+            new ResponseHeader(DateTime.now(), uint(42), StatusCode.GOOD, null, new String[0], null);
+
+    @Test
+    public void testReadResponseResultsDecodeOnAccess() {
+        DataValue[] results = new DataValue[100];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = new DataValue(new Variant("value" + i));
+        }
+
+        DiagnosticInfo[] diagnosticInfos = {
+                new DiagnosticInfo(1, 2, 3, 4, "additional info", StatusCode.BAD, null)
+        };
+
+        encoder.encodeMessage(null, new ReadResponse(responseHeader, results, diagnosticInfos));
+
+        LazyArrayResponse<DataValue> response = LazyArrayResponse.decodeReadResponse(decoder);
+        LazyArray<DataValue> lazyResults = response.getResults();
+
+        assertEquals(response.getResponseHeader().getRequestHandle(), uint(42));
+        assertEquals(lazyResults.size(), results.length);
+        assertEquals(buffer.refCnt(), 2);
+
+        assertEquals(lazyResults.get(57).getValue().getValue(), "value57");
+        assertEquals(lazyResults.get(3).getValue().getValue(), "value3");
+        assertEquals(lazyResults.get(57).getValue().getValue(), "value57");
+
+        Iterator<DataValue> iterator = lazyResults.iterator();
+        for (int i = 0; i < results.length; i++) {
+            assertEquals(iterator.next().getValue().getValue(), "value" + i);
+        }
+        assertFalse(iterator.hasNext());
+
+        assertEquals(response.getDiagnosticInfos(), diagnosticInfos);
+
+        response.release();
+        assertEquals(buffer.refCnt(), 1);
+    }
+
+    @Test
+    public void testDiagnosticInfosBeforeResults() {
+        DataValue[] results = new DataValue[10];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = new DataValue(new Variant(i));
+        }
+
+        encoder.encodeMessage(null, new ReadResponse(responseHeader, results, null));
+
+        LazyArrayResponse<DataValue> response = LazyArrayResponse.decodeReadResponse(decoder);
+
+        assertEquals(response.getDiagnosticInfos().length, 0);
+        assertEquals(response.getResults().get(9).getValue().getValue(), 9);
+
+        response.release();
+    }
+
+    @Test
+    public void testEmptyBrowseResponse() {
+        encoder.encodeMessage(null, new BrowseResponse(responseHeader, null, null));
+
+        LazyArrayResponse<BrowseResult> response = LazyArrayResponse.decodeBrowseResponse(decoder);
+
+        assertEquals(response.getResults().size(), 0);
+        assertFalse(response.getResults().iterator().hasNext());
+        assertEquals(response.getDiagnosticInfos().length, 0);
+
+        response.release();
+        assertEquals(buffer.refCnt(), 1);
+    }
+
+    @Test
+    public void testElementsDecodeWithParentSettings() {
+        ByteString[] byteStrings = {ByteString.of(new byte[]{1, 2}), ByteString.of(new byte[]{3, 4})};
+        encoder.encodeArray(null, byteStrings, encoder::encodeByteString);
+        encoder.encodeInt32(null, 42);
+
+        LazyArray<ByteString> array = decoder
+                .setZeroCopyByteStrings(true)
+                .decodeLazyArray(null, d -> d.decodeByteString(null));
+
+        ByteString second = array.get(1);
+        assertTrue(second.isBuffered());
+        assertEquals(second, byteStrings[1]);
+        second.release();
+
+        assertEquals(array.remaining().decodeInt32(null), Integer.valueOf(42));
+
+        array.release();
+        assertEquals(buffer.refCnt(), 1);
+    }
+
+}
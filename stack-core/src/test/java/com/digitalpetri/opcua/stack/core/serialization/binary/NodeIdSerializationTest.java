@@ -18,12 +18,19 @@ package com.digitalpetri.opcua.stack.core.serialization.binary;
 
 import java.util.UUID;
 
+import com.digitalpetri.opcua.stack.core.channel.ChannelConfig;
 import com.digitalpetri.opcua.stack.core.types.builtin.ByteString;
 import com.digitalpetri.opcua.stack.core.types.builtin.NodeId;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
 
 public class NodeIdSerializationTest extends BinarySerializationFixture {
 
@@ -60,4 +67,78 @@ public class NodeIdSerializationTest extends BinarySerializationFixture {
         assertEquals(decoded, nodeId);
     }
 
+    @Test
+    public void testNumericBinaryEncoding() {
+        NodeId nodeId = new NodeId(1, 65536);
+
+        assertEquals(binaryEncoding(nodeId), new byte[]{0x02, 0x01, 0x00, 0x00, 0x00, 0x01, 0x00});
+        assertEquals(binaryEncoding(nodeId), new byte[]{0x02, 0x01, 0x00, 0x00, 0x00, 0x01, 0x00});
+
+        assertEquals(binaryEncoding(new NodeId(0, 85)), new byte[]{0x00, 0x55});
+        assertEquals(binaryEncoding(new NodeId(2, 631)), new byte[]{0x01, 0x02, 0x77, 0x02});
+
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            assertFalse(new NodeId(1, "hello, world").writeBinaryEncoding(buffer));
+            assertEquals(buffer.writerIndex(), 0);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    private static byte[] binaryEncoding(NodeId nodeId) {
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            assertTrue(nodeId.writeBinaryEncoding(buffer));
+
+            byte[] bs = new byte[buffer.readableBytes()];
+            buffer.readBytes(bs);
+            return bs;
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @Test
+    public void testNamespaceZeroNodeIdsAreCanonical() {
+        encoder.encodeNodeId(null, new NodeId(0, 85));
+        encoder.encodeNodeId(null, new NodeId(0, 85));
+        encoder.encodeNodeId(null, new NodeId(0, 631));
+        encoder.encodeNodeId(null, new NodeId(0, 631));
+
+        assertSame(decoder.decodeNodeId(null), decoder.decodeNodeId(null));
+        assertSame(decoder.decodeNodeId(null), decoder.decodeNodeId(null));
+    }
+
+    @Test
+    public void testNodeIdCacheIsBounded() {
+        BinaryDecoder cachingDecoder = new BinaryDecoder(
+                ChannelConfig.DEFAULT_MAX_ARRAY_LENGTH, ChannelConfig.DEFAULT_MAX_STRING_LENGTH, 0, 2);
+
+        NodeId numeric = new NodeId(2, 1000);
+        NodeId string = new NodeId(2, "Channel1.Device1.Tag1");
+
+        encoder.encodeNodeId(null, numeric);
+        encoder.encodeNodeId(null, numeric);
+        encoder.encodeNodeId(null, string);
+        encoder.encodeNodeId(null, string);
+        encoder.encodeNodeId(null, new NodeId(2, 1001));
+        encoder.encodeNodeId(null, new NodeId(2, 1002));
+        encoder.encodeNodeId(null, numeric);
+
+        cachingDecoder.setBuffer(buffer);
+
+        NodeId first = cachingDecoder.decodeNodeId(null);
+        assertEquals(first, numeric);
+        assertSame(cachingDecoder.decodeNodeId(null), first);
+        assertSame(cachingDecoder.decodeNodeId(null), cachingDecoder.decodeNodeId(null));
+
+        cachingDecoder.decodeNodeId(null);
+        cachingDecoder.decodeNodeId(null);
+
+        NodeId evicted = cachingDecoder.decodeNodeId(null);
+        assertEquals(evicted, numeric);
+        assertNotSame(evicted, first);
+    }
+
 }
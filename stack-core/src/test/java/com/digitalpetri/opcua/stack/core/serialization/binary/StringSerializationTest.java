@@ -16,10 +16,13 @@
 
 package com.digitalpetri.opcua.stack.core.serialization.binary;
 
+import com.digitalpetri.opcua.stack.core.channel.ChannelConfig;
+import com.google.common.base.Strings;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
 
 public class StringSerializationTest extends BinarySerializationFixture {
 
@@ -29,7 +32,9 @@ public class StringSerializationTest extends BinarySerializationFixture {
                 {null},
                 {""},
                 {"Hello, world!"},
-                {"水Boy"}
+                {"水Boy"},
+                {"Temp\u00e9rature \u00b0C"},
+                {"\uD83D\uDE00 surrogate pair"}
         };
     }
 
@@ -41,4 +46,74 @@ public class StringSerializationTest extends BinarySerializationFixture {
         assertEquals(decoded, value);
     }
 
+    @Test(dataProvider = "StringProvider")
+    public void testStringEncodesAsUtf8(String value) throws Exception {
+        encoder.encodeString(null, value);
+
+        if (value == null) {
+            assertEquals(buffer.readInt(), -1);
+        } else {
+            byte[] expected = value.getBytes("UTF-8");
+            byte[] actual = new byte[buffer.readInt()];
+            buffer.readBytes(actual);
+
+            assertEquals(actual, expected);
+        }
+    }
+
+    @Test
+    public void testUnpairedSurrogatesEncodeAsQuestionMark() throws Exception {
+        String[] values = {"a\uD800b", "a\uDC00b", "a\uD800", "\uDC00\uD800"};
+
+        for (String value : values) {
+            encoder.encodeString(null, value);
+            encoder.encodeInt32(null, 42);
+
+            byte[] expected = value.getBytes("UTF-8");
+            byte[] actual = new byte[buffer.readInt()];
+            buffer.readBytes(actual);
+
+            assertEquals(actual, expected);
+            assertEquals(buffer.readInt(), 42);
+        }
+
+        encoder.encodeString(null, "a\uD800b");
+        assertEquals(decoder.decodeString(null), "a?b");
+    }
+
+    @Test
+    public void testStringCacheReturnsCanonicalInstances() {
+        BinaryDecoder cachingDecoder = new BinaryDecoder(
+                ChannelConfig.DEFAULT_MAX_ARRAY_LENGTH, ChannelConfig.DEFAULT_MAX_STRING_LENGTH, 4);
+
+        String[] values = new String[64];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = "Channel1.Device1.Tag" + i;
+        }
+
+        for (int pass = 0; pass < 2; pass++) {
+            for (String value : values) {
+                encoder.encodeString(null, value);
+                encoder.encodeString(null, value);
+            }
+
+            cachingDecoder.setBuffer(buffer);
+
+            for (String value : values) {
+                String first = cachingDecoder.decodeString(null);
+                String second = cachingDecoder.decodeString(null);
+
+                assertEquals(first, value);
+                assertSame(second, first);
+            }
+        }
+
+        String longValue = Strings.repeat("x", DecodedStringCache.MAX_CACHED_LENGTH + 1);
+        encoder.encodeString(null, longValue);
+        encoder.encodeString(null, longValue);
+
+        assertEquals(cachingDecoder.decodeString(null), longValue);
+        assertEquals(cachingDecoder.decodeString(null), longValue);
+    }
+
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.serialization.binary;
+
+import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UInteger;
+import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UShort;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
+import static org.testng.Assert.assertEquals;
+
+public class UnsignedSerializationTest extends BinarySerializationFixture {
+
+    @DataProvider
+    public Object[][] getUInt32s() {
+        return new Object[][]{{0L}, {255L}, {256L}, {Integer.MAX_VALUE + 1L}, {UInteger.MAX_VALUE}};
+    }
+
+    @DataProvider
+    public Object[][] getUInt16s() {
+        return new Object[][]{{0}, {255}, {256}, {Short.MAX_VALUE + 1}, {UShort.MAX_VALUE}};
+    }
+
+    @Test(dataProvider = "getUInt32s", description = "Primitive UInt32 accessors match the boxed ones.")
+    public void testUInt32(long value) {
+        encoder.encodeUInt32(null, value);
+        encoder.encodeUInt32(null, uint(value));
+
+        assertEquals(decoder.decodeUInt32(null), uint(value));
+        assertEquals(decoder.decodeUInt32AsLong(null), value);
+    }
+
+    @Test(dataProvider = "getUInt16s", description = "Primitive UInt16 accessors match the boxed ones.")
+    public void testUInt16(int value) {
+        encoder.encodeUInt16(null, value);
+        encoder.encodeUInt16(null, ushort(value));
+
+        assertEquals(decoder.decodeUInt16(null), ushort(value));
+        assertEquals(decoder.decodeUInt16AsInt(null), value);
+    }
+
+}
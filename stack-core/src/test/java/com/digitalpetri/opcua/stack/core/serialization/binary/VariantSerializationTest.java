@@ -16,16 +16,22 @@
 
 package com.digitalpetri.opcua.stack.core.serialization.binary;
 
+import java.nio.ByteOrder;
+
 import com.digitalpetri.opcua.stack.core.types.builtin.ExtensionObject;
 import com.digitalpetri.opcua.stack.core.types.builtin.Variant;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UInteger;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned;
 import com.digitalpetri.opcua.stack.core.types.structured.ServiceCounterDataType;
+import com.google.common.primitives.Doubles;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class VariantSerializationTest extends BinarySerializationFixture {
 
@@ -81,7 +87,22 @@ public class VariantSerializationTest extends BinarySerializationFixture {
                         new Variant(new Long[]{0L, 1L, 2L, 3L})},
 
                 {new Variant(new long[][]{{0L, 1L}, {2L, 3L}}),
-                        new Variant(new Long[][]{{0L, 1L}, {2L, 3L}})}
+                        new Variant(new Long[][]{{0L, 1L}, {2L, 3L}})},
+
+                {new Variant(new float[]{0f, 1.5f, 2.5f, 3.5f}),
+                        new Variant(new Float[]{0f, 1.5f, 2.5f, 3.5f})},
+
+                {new Variant(new double[]{0d, 1.5d, 2.5d, 3.5d}),
+                        new Variant(new Double[]{0d, 1.5d, 2.5d, 3.5d})},
+
+                {new Variant(new double[][]{{0d, 1.5d}, {2.5d, 3.5d}}),
+                        new Variant(new Double[][]{{0d, 1.5d}, {2.5d, 3.5d}})},
+
+                {Variant.ofDoubles(new double[]{0d, 1.5d, 2.5d, 3.5d}),
+                        new Variant(new Double[]{0d, 1.5d, 2.5d, 3.5d})},
+
+                {Variant.ofInts(new int[]{0, 1, 2, 3}),
+                        new Variant(new Integer[]{0, 1, 2, 3})}
         };
     }
 
@@ -94,4 +115,33 @@ public class VariantSerializationTest extends BinarySerializationFixture {
         assertEquals(decoded, expected);
     }
 
+    @Test
+    public void testNumericArraysDecodeToPrimitiveArrays() {
+        double[] values = new double[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.sin(i);
+        }
+
+        encoder.encodeVariant(null, new Variant(values));
+        Variant decoded = decoder.decodeVariant(null);
+
+        assertTrue(decoded.getRawValue() instanceof double[]);
+        assertEquals(decoded.getDoubleArray(), values);
+        assertEquals(decoded.getValue(), Doubles.asList(values).toArray(new Double[0]));
+    }
+
+    @Test
+    public void testNumericArrayDecodeAcrossComponents() {
+        encoder.encodeVariant(null, Variant.ofLongs(new long[]{0L, 1L, 2L, 3L}));
+
+        CompositeByteBuf composite = Unpooled.compositeBuffer()
+                .addComponent(buffer.readSlice(9))
+                .addComponent(buffer.readSlice(buffer.readableBytes()));
+        composite.writerIndex(composite.capacity());
+
+        Variant decoded = decoder.setBuffer(composite.order(ByteOrder.LITTLE_ENDIAN)).decodeVariant(null);
+
+        assertEquals(decoded.getLongArray(), new long[]{0L, 1L, 2L, 3L});
+    }
+
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class ExecutionQueueTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterClass
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSerialExecutionFromManyProducers() throws Exception {
+        ExecutionQueue queue = new ExecutionQueue(executor, 8);
+
+        int producerCount = 4;
+        int submissionsPerProducer = 10000;
+
+        AtomicInteger concurrent = new AtomicInteger(0);
+        AtomicInteger executed = new AtomicInteger(0);
+        List<List<Integer>> executedByProducer = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(producerCount * submissionsPerProducer);
+
+        for (int p = 0; p < producerCount; p++) {
+            executedByProducer.add(Collections.synchronizedList(new ArrayList<>()));
+        }
+
+        List<Thread> producers = new ArrayList<>();
+
+        for (int p = 0; p < producerCount; p++) {
+            final List<Integer> executedByThisProducer = executedByProducer.get(p);
+
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < submissionsPerProducer; i++) {
+                    final int n = i;
+
+                    queue.submit(() -> {
+                        assertEquals(concurrent.incrementAndGet(), 1);
+                        executedByThisProducer.add(n);
+                        executed.incrementAndGet();
+                        concurrent.decrementAndGet();
+                        done.countDown();
+                    });
+                }
+            }));
+        }
+
+        producers.forEach(Thread::start);
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(executed.get(), producerCount * submissionsPerProducer);
+
+        for (List<Integer> executedByThisProducer : executedByProducer) {
+            for (int i = 0; i < submissionsPerProducer; i++) {
+                assertEquals(executedByThisProducer.get(i).intValue(), i);
+            }
+        }
+    }
+
+    @Test
+    public void testPauseResumeAndSubmitToHead() throws Exception {
+        ExecutionQueue queue = new ExecutionQueue(executor);
+
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(4);
+
+        queue.pause();
+
+        queue.submit(() -> {
+            executed.add(1);
+            done.countDown();
+        });
+        queue.submit(() -> {
+            executed.add(2);
+            done.countDown();
+        });
+        queue.submitToHead(() -> {
+            executed.add(0);
+            done.countDown();
+        });
+
+        Thread.sleep(100);
+        assertTrue(executed.isEmpty());
+
+        queue.resume();
+
+        queue.submit(() -> {
+            executed.add(3);
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(executed.toArray(), new Integer[]{0, 1, 2, 3});
+    }
+
+    @Test
+    public void testPauseFromWithinRunnable() throws Exception {
+        ExecutionQueue queue = new ExecutionQueue(executor);
+
+        AtomicInteger executed = new AtomicInteger(0);
+        CountDownLatch first = new CountDownLatch(1);
+
+        queue.submit(() -> {
+            queue.pause();
+            executed.incrementAndGet();
+            first.countDown();
+        });
+        queue.submit(executed::incrementAndGet);
+
+        assertTrue(first.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(executed.get(), 1);
+
+        CountDownLatch second = new CountDownLatch(1);
+        queue.submit(second::countDown);
+        queue.resume();
+
+        assertTrue(second.await(5, TimeUnit.SECONDS));
+        assertEquals(executed.get(), 2);
+    }
+
+}
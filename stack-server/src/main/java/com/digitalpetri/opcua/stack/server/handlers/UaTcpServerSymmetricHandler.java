@@ -18,21 +18,22 @@ package com.digitalpetri.opcua.stack.server.handlers;
 
 import java.io.IOException;
 import java.nio.ByteOrder;
-import java.util.ArrayList;
 import java.util.List;
 
 import com.digitalpetri.opcua.stack.core.StatusCodes;
 import com.digitalpetri.opcua.stack.core.UaException;
 import com.digitalpetri.opcua.stack.core.application.services.ServiceRequest;
 import com.digitalpetri.opcua.stack.core.application.services.ServiceResponse;
-import com.digitalpetri.opcua.stack.core.channel.ChannelSecurity;
+import com.digitalpetri.opcua.stack.core.channel.ChannelConfig;
+import com.digitalpetri.opcua.stack.core.channel.ChunkWriteQueue;
 import com.digitalpetri.opcua.stack.core.channel.ExceptionHandler;
+import com.digitalpetri.opcua.stack.core.channel.MessageAbortedException;
 import com.digitalpetri.opcua.stack.core.channel.SerializationQueue;
 import com.digitalpetri.opcua.stack.core.channel.ServerSecureChannel;
 import com.digitalpetri.opcua.stack.core.channel.headers.HeaderDecoder;
-import com.digitalpetri.opcua.stack.core.channel.headers.SymmetricSecurityHeader;
 import com.digitalpetri.opcua.stack.core.channel.messages.ErrorMessage;
 import com.digitalpetri.opcua.stack.core.channel.messages.MessageType;
+import com.digitalpetri.opcua.stack.core.serialization.EncodedSizeEstimator;
 import com.digitalpetri.opcua.stack.core.serialization.UaRequestMessage;
 import com.digitalpetri.opcua.stack.core.serialization.UaResponseMessage;
 import com.digitalpetri.opcua.stack.core.util.BufferUtil;
@@ -45,13 +46,24 @@ import org.slf4j.LoggerFactory;
 
 public class UaTcpServerSymmetricHandler extends ByteToMessageCodec<ServiceResponse> implements HeaderDecoder {
 
+    /**
+     * Learns the encoded size of each response class so response buffers can be allocated at about the right size.
+     */
+    private static final EncodedSizeEstimator SIZE_ESTIMATOR =
+            new EncodedSizeEstimator(ChannelConfig.DEFAULT_MAX_MESSAGE_SIZE);
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
-    private List<ByteBuf> chunkBuffers;
+    /**
+     * The number of chunks received so far for the message currently being decoded.
+     */
+    private int chunkCount;
 
     private final int maxChunkCount;
     private final int maxChunkSize;
 
+    private ChunkWriteQueue chunkWriteQueue;
+
     private final UaTcpStackServer server;
     private final SerializationQueue serializationQueue;
     private final ServerSecureChannel secureChannel;
@@ -66,12 +78,12 @@ public class UaTcpServerSymmetricHandler extends ByteToMessageCodec<ServiceRespo
 
         maxChunkCount = serializationQueue.getParameters().getLocalMaxChunkCount();
         maxChunkSize = serializationQueue.getParameters().getLocalReceiveBufferSize();
-
-        chunkBuffers = new ArrayList<>(maxChunkCount);
     }
 
     @Override
     public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        chunkWriteQueue = new ChunkWriteQueue(ctx);
+
         if (secureChannel != null) {
             secureChannel.attr(UaTcpStackServer.BoundChannelKey).set(ctx.channel());
         }
@@ -85,17 +97,20 @@ public class UaTcpServerSymmetricHandler extends ByteToMessageCodec<ServiceRespo
             secureChannel.attr(UaTcpStackServer.BoundChannelKey).remove();
         }
 
+        serializationQueue.decode((binaryDecoder, chunkDecoder) -> chunkDecoder.close());
+
         super.channelInactive(ctx);
     }
 
     @Override
     protected void encode(ChannelHandlerContext ctx, ServiceResponse message, ByteBuf out) throws Exception {
         serializationQueue.encode((binaryEncoder, chunkEncoder) -> {
-            ByteBuf messageBuffer = BufferUtil.buffer();
+            ByteBuf messageBuffer = BufferUtil.buffer(SIZE_ESTIMATOR.estimate(message.getResponse()));
 
             try {
                 binaryEncoder.setBuffer(messageBuffer);
                 binaryEncoder.encodeMessage(null, message.getResponse());
+                SIZE_ESTIMATOR.update(message.getResponse(), messageBuffer.readableBytes());
 
                 final List<ByteBuf> chunks = chunkEncoder.encodeSymmetric(
                         secureChannel,
@@ -104,10 +119,7 @@ public class UaTcpServerSymmetricHandler extends ByteToMessageCodec<ServiceRespo
                         message.getRequestId()
                 );
 
-                ctx.executor().execute(() -> {
-                    chunks.forEach(c -> ctx.write(c, ctx.voidPromise()));
-                    ctx.flush();
-                });
+                chunkWriteQueue.write(chunks);
             } catch (UaException e) {
                 logger.error("Error encoding {}: {}", message.getResponse().getClass(), e.getMessage(), e);
                 ctx.close();
@@ -143,97 +155,68 @@ public class UaTcpServerSymmetricHandler extends ByteToMessageCodec<ServiceRespo
 
         char chunkType = (char) buffer.readByte();
 
-        if (chunkType == 'A') {
-            chunkBuffers.forEach(ByteBuf::release);
-            chunkBuffers.clear();
-        } else {
-            buffer.skipBytes(4); // Skip messageSize
-
-            long secureChannelId = buffer.readUnsignedInt();
-            if (secureChannelId != secureChannel.getChannelId()) {
-                throw new UaException(StatusCodes.Bad_SecureChannelIdInvalid,
-                        "invalid secure channel id: " + secureChannelId);
-            }
-
-            int chunkSize = buffer.readerIndex(0).readableBytes();
-            if (chunkSize > maxChunkSize) {
-                throw new UaException(StatusCodes.Bad_TcpMessageTooLarge,
-                        String.format("max chunk size exceeded (%s)", maxChunkSize));
-            }
-
-            chunkBuffers.add(buffer.retain());
-
-            if (chunkBuffers.size() > maxChunkCount) {
-                throw new UaException(StatusCodes.Bad_TcpMessageTooLarge,
-                        String.format("max chunk count exceeded (%s)", maxChunkCount));
-            }
-
-            if (chunkType == 'F') {
-                final List<ByteBuf> buffersToDecode = chunkBuffers;
-                chunkBuffers = new ArrayList<>(maxChunkCount);
-
-                serializationQueue.decode((binaryDecoder, chunkDecoder) -> {
-                    try {
-                        validateChunkHeaders(buffersToDecode);
-
-                        ByteBuf messageBuffer = chunkDecoder.decodeSymmetric(secureChannel, buffersToDecode);
+        buffer.skipBytes(4); // Skip messageSize
 
-                        binaryDecoder.setBuffer(messageBuffer);
-                        UaRequestMessage request = binaryDecoder.decodeMessage(null);
-
-                        ServiceRequest<UaRequestMessage, UaResponseMessage> serviceRequest = new ServiceRequest<>(
-                                request,
-                                chunkDecoder.getLastRequestId(),
-                                server,
-                                secureChannel
-                        );
+        long secureChannelId = buffer.readUnsignedInt();
+        if (secureChannelId != secureChannel.getChannelId()) {
+            throw new UaException(StatusCodes.Bad_SecureChannelIdInvalid,
+                    "invalid secure channel id: " + secureChannelId);
+        }
 
-                        server.getExecutorService().execute(() -> server.receiveRequest(serviceRequest));
+        int chunkSize = buffer.readerIndex(0).readableBytes();
+        if (chunkSize > maxChunkSize) {
+            throw new UaException(StatusCodes.Bad_TcpMessageTooLarge,
+                    String.format("max chunk size exceeded (%s)", maxChunkSize));
+        }
 
-                        messageBuffer.release();
-                        buffersToDecode.clear();
-                    } catch (UaException e) {
-                        logger.error("Error decoding symmetric message: {}", e.getMessage(), e);
-                        ctx.close();
-                    }
-                });
-            }
+        if (++chunkCount > maxChunkCount) {
+            throw new UaException(StatusCodes.Bad_TcpMessageTooLarge,
+                    String.format("max chunk count exceeded (%s)", maxChunkCount));
         }
-    }
 
+        if (chunkType != 'C') chunkCount = 0;
+
+        final ByteBuf chunkBuffer = buffer.retain();
 
-    private void validateChunkHeaders(List<ByteBuf> chunkBuffers) throws UaException {
-        ChannelSecurity channelSecurity = secureChannel.getChannelSecurity();
-        long currentTokenId = channelSecurity.getCurrentToken().getTokenId().longValue();
-        long previousTokenId = channelSecurity.getPreviousToken()
-                .map(t -> t.getTokenId().longValue())
-                .orElse(-1L);
+        /*
+         * Each chunk's token id is checked and the chunk verified and decrypted as it arrives; only the final chunk
+         * hands an assembled message to the BinaryDecoder.
+         */
+        serializationQueue.decode((binaryDecoder, chunkDecoder) -> {
+            ByteBuf messageBuffer = null;
 
-        for (ByteBuf chunkBuffer : chunkBuffers) {
-            chunkBuffer.skipBytes(3 + 1 + 4 + 4); // skip messageType, chunkType, messageSize, secureChannelId
+            try {
+                messageBuffer = chunkDecoder.decodeSymmetricChunk(secureChannel, chunkBuffer);
 
-            SymmetricSecurityHeader securityHeader = SymmetricSecurityHeader.decode(chunkBuffer);
+                if (messageBuffer != null) {
+                    binaryDecoder.setBuffer(messageBuffer);
+                    UaRequestMessage request = binaryDecoder.decodeMessage(null);
 
-            if (securityHeader.getTokenId() != currentTokenId) {
-                if (securityHeader.getTokenId() != previousTokenId) {
-                    String message = String.format(
-                            "received unknown secure channel token. " +
-                                    "tokenId=%s, currentTokenId=%s, previousTokenId=%s",
-                            securityHeader.getTokenId(), currentTokenId, previousTokenId);
+                    ServiceRequest<UaRequestMessage, UaResponseMessage> serviceRequest = new ServiceRequest<>(
+                            request,
+                            chunkDecoder.getLastRequestId(),
+                            server,
+                            secureChannel
+                    );
 
-                    throw new UaException(StatusCodes.Bad_SecureChannelTokenUnknown, message);
+                    server.getExecutorService().execute(() -> server.receiveRequest(serviceRequest));
+                }
+            } catch (MessageAbortedException e) {
+                logger.debug("Received message abort chunk; error={}, reason={}", e.getStatusCode(), e.getMessage());
+            } catch (UaException e) {
+                logger.error("Error decoding symmetric message: {}", e.getMessage(), e);
+                ctx.close();
+            } finally {
+                if (messageBuffer != null) {
+                    messageBuffer.release();
                 }
             }
-
-            chunkBuffer.readerIndex(0);
-        }
+        });
     }
 
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
-        chunkBuffers.forEach(ByteBuf::release);
-        chunkBuffers.clear();
-
         if (cause instanceof IOException) {
             ctx.close();
             logger.debug("[remote={}] IOException caught; channel closed");
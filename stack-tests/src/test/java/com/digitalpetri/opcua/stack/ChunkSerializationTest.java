@@ -18,7 +18,11 @@ package com.digitalpetri.opcua.stack;
 
 import java.util.List;
 
+import com.digitalpetri.opcua.stack.core.Stack;
+import com.digitalpetri.opcua.stack.core.StatusCodes;
+import com.digitalpetri.opcua.stack.core.UaException;
 import com.digitalpetri.opcua.stack.core.channel.ChannelConfig;
+import com.digitalpetri.opcua.stack.core.channel.ChannelSecurity;
 import com.digitalpetri.opcua.stack.core.channel.ChannelParameters;
 import com.digitalpetri.opcua.stack.core.channel.ChunkDecoder;
 import com.digitalpetri.opcua.stack.core.channel.ChunkEncoder;
@@ -27,8 +31,11 @@ import com.digitalpetri.opcua.stack.core.channel.SecureChannel;
 import com.digitalpetri.opcua.stack.core.channel.ServerSecureChannel;
 import com.digitalpetri.opcua.stack.core.channel.messages.MessageType;
 import com.digitalpetri.opcua.stack.core.security.SecurityPolicy;
+import com.digitalpetri.opcua.stack.core.types.builtin.ByteString;
+import com.digitalpetri.opcua.stack.core.types.builtin.DateTime;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UInteger;
 import com.digitalpetri.opcua.stack.core.types.enumerated.MessageSecurityMode;
+import com.digitalpetri.opcua.stack.core.types.structured.ChannelSecurityToken;
 import com.digitalpetri.opcua.stack.core.util.BufferUtil;
 import com.digitalpetri.opcua.stack.core.util.CryptoRestrictions;
 import com.digitalpetri.opcua.stack.core.util.LongSequence;
@@ -39,7 +46,13 @@ import org.slf4j.LoggerFactory;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static com.digitalpetri.opcua.stack.core.util.NonceUtil.generateNonce;
+import static com.digitalpetri.opcua.stack.core.util.NonceUtil.getNonceLength;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 public class ChunkSerializationTest extends SecureChannelFixture {
 
@@ -208,4 +221,219 @@ public class ChunkSerializationTest extends SecureChannelFixture {
         assertEquals(decodedBuffer, messageBuffer);
     }
 
+    @Test(dataProvider = "getSymmetricSecurityParameters")
+    public void testSymmetricMessageIncremental(SecurityPolicy securityPolicy,
+                                                MessageSecurityMode messageSecurity,
+                                                int messageSize) throws Exception {
+
+        logger.info("Incremental symmetric chunk decoding, securityPolicy={}, messageSecurityMode={}, messageSize={}",
+                securityPolicy, messageSecurity, messageSize);
+
+        ChunkEncoder encoder = new ChunkEncoder(parameters);
+
+        SecureChannel[] channels = generateChannels(securityPolicy, messageSecurity);
+        ClientSecureChannel clientChannel = (ClientSecureChannel) channels[0];
+        ServerSecureChannel serverChannel = (ServerSecureChannel) channels[1];
+
+        LongSequence requestId = new LongSequence(1L, UInteger.MAX_VALUE);
+
+        ChunkDecoder[] decoders = {
+                new ChunkDecoder(parameters),
+                new ChunkDecoder(parameters, Stack.sharedChunkCryptoPool())
+        };
+
+        for (ChunkDecoder decoder : decoders) {
+            byte[] messageBytes = new byte[messageSize];
+            for (int i = 0; i < messageBytes.length; i++) {
+                messageBytes[i] = (byte) i;
+            }
+
+            ByteBuf messageBuffer = BufferUtil.buffer().writeBytes(messageBytes);
+
+            List<ByteBuf> chunkBuffers = encoder.encodeSymmetric(
+                    clientChannel,
+                    MessageType.SecureMessage,
+                    messageBuffer,
+                    requestId.getAndIncrement()
+            );
+
+            ByteBuf decodedBuffer = null;
+
+            for (int i = 0; i < chunkBuffers.size(); i++) {
+                decodedBuffer = decoder.decodeSymmetricChunk(serverChannel, chunkBuffers.get(i));
+
+                if (i < chunkBuffers.size() - 1) {
+                    assertNull(decodedBuffer);
+                }
+            }
+
+            ReferenceCountUtil.releaseLater(messageBuffer);
+            ReferenceCountUtil.releaseLater(decodedBuffer);
+
+            messageBuffer.readerIndex(0);
+            assertEquals(decodedBuffer, messageBuffer);
+        }
+    }
+
+    @Test
+    public void testSymmetricMessageFailsMidMessage() throws Exception {
+        ChunkEncoder encoder = new ChunkEncoder(parameters);
+        ChunkDecoder decoder = new ChunkDecoder(parameters);
+
+        SecureChannel[] channels = generateChannels(SecurityPolicy.None, MessageSecurityMode.None);
+        ClientSecureChannel clientChannel = (ClientSecureChannel) channels[0];
+        ServerSecureChannel serverChannel = (ServerSecureChannel) channels[1];
+
+        ByteBuf messageBuffer = BufferUtil.buffer().writeBytes(new byte[ChannelConfig.DEFAULT_MAX_CHUNK_SIZE * 3]);
+
+        List<ByteBuf> chunkBuffers = encoder.encodeSymmetric(
+                clientChannel,
+                MessageType.SecureMessage,
+                messageBuffer,
+                1L
+        );
+
+        messageBuffer.release();
+        assertTrue(chunkBuffers.size() > 3);
+
+        assertNull(decoder.decodeSymmetricChunk(serverChannel, chunkBuffers.get(0)));
+
+        // Skipping a chunk breaks the sequence number check in the middle of the message.
+        try {
+            decoder.decodeSymmetricChunk(serverChannel, chunkBuffers.get(2));
+            fail("expected sequence number check to fail");
+        } catch (UaException e) {
+            assertEquals(e.getStatusCode().getValue(), StatusCodes.Bad_SecurityChecksFailed);
+        }
+
+        // Chunks still queued when the decoder is closed are released rather than decoded.
+        decoder.close();
+
+        assertNull(decoder.decodeSymmetricChunk(serverChannel, chunkBuffers.get(1)));
+        for (int i = 3; i < chunkBuffers.size(); i++) {
+            assertNull(decoder.decodeSymmetricChunk(serverChannel, chunkBuffers.get(i)));
+        }
+
+        for (ByteBuf chunkBuffer : chunkBuffers) {
+            assertEquals(chunkBuffer.refCnt(), 0);
+        }
+    }
+
+    @DataProvider
+    public Object[][] getSecuredSymmetricParameters() {
+        return new Object[][]{
+                {SecurityPolicy.Basic128Rsa15, MessageSecurityMode.Sign},
+                {SecurityPolicy.Basic128Rsa15, MessageSecurityMode.SignAndEncrypt},
+                {SecurityPolicy.Basic256, MessageSecurityMode.Sign},
+                {SecurityPolicy.Basic256, MessageSecurityMode.SignAndEncrypt},
+                {SecurityPolicy.Basic256Sha256, MessageSecurityMode.Sign},
+                {SecurityPolicy.Basic256Sha256, MessageSecurityMode.SignAndEncrypt},
+        };
+    }
+
+    @Test(dataProvider = "getSecuredSymmetricParameters")
+    public void testSymmetricMessageAcrossRenewal(SecurityPolicy securityPolicy,
+                                                  MessageSecurityMode messageSecurity) throws Exception {
+
+        logger.info("Symmetric chunk serialization across renewal, securityPolicy={}, messageSecurityMode={}",
+                securityPolicy, messageSecurity);
+
+        ChunkEncoder encoder = new ChunkEncoder(parameters);
+        ChunkDecoder decoder = new ChunkDecoder(parameters);
+
+        SecureChannel[] channels = generateChannels(securityPolicy, messageSecurity);
+        ClientSecureChannel clientChannel = (ClientSecureChannel) channels[0];
+        ServerSecureChannel serverChannel = (ServerSecureChannel) channels[1];
+
+        LongSequence requestId = new LongSequence(1L, UInteger.MAX_VALUE);
+
+        for (int i = 0; i < 3; i++) {
+            encodeAndDecodeSymmetric(encoder, decoder, clientChannel, serverChannel,
+                    requestId.getAndIncrement(), ChannelConfig.DEFAULT_MAX_CHUNK_SIZE);
+        }
+
+        ByteString clientNonce = generateNonce(getNonceLength(securityPolicy.getSymmetricEncryptionAlgorithm()));
+        ByteString serverNonce = generateNonce(getNonceLength(securityPolicy.getSymmetricEncryptionAlgorithm()));
+
+        ChannelSecurityToken token = new ChannelSecurityToken(uint(0), uint(2), DateTime.now(), uint(60000));
+
+        ChannelSecurity clientSecurity = clientChannel.getChannelSecurity();
+        ChannelSecurity serverSecurity = serverChannel.getChannelSecurity();
+
+        clientChannel.setChannelSecurity(new ChannelSecurity(
+                ChannelSecurity.generateKeyPair(clientChannel, clientNonce, serverNonce), token,
+                clientSecurity.getCurrentKeys(), clientSecurity.getCurrentToken()));
+
+        serverChannel.setChannelSecurity(new ChannelSecurity(
+                ChannelSecurity.generateKeyPair(serverChannel, clientNonce, serverNonce), token,
+                serverSecurity.getCurrentKeys(), serverSecurity.getCurrentToken()));
+
+        for (int i = 0; i < 3; i++) {
+            encodeAndDecodeSymmetric(encoder, decoder, clientChannel, serverChannel,
+                    requestId.getAndIncrement(), ChannelConfig.DEFAULT_MAX_CHUNK_SIZE);
+        }
+    }
+
+    @Test(dataProvider = "getSecuredSymmetricParameters")
+    public void testSymmetricMessageParallelCrypto(SecurityPolicy securityPolicy,
+                                                   MessageSecurityMode messageSecurity) throws Exception {
+
+        logger.info("Symmetric chunk serialization with parallel crypto, securityPolicy={}, messageSecurityMode={}",
+                securityPolicy, messageSecurity);
+
+        ChunkEncoder encoder = new ChunkEncoder(parameters, Stack.sharedChunkCryptoPool());
+        ChunkDecoder decoder = new ChunkDecoder(parameters, Stack.sharedChunkCryptoPool());
+
+        SecureChannel[] channels = generateChannels(securityPolicy, messageSecurity);
+        ClientSecureChannel clientChannel = (ClientSecureChannel) channels[0];
+        ServerSecureChannel serverChannel = (ServerSecureChannel) channels[1];
+
+        LongSequence requestId = new LongSequence(1L, UInteger.MAX_VALUE);
+
+        int[] messageSizes = {
+                128,
+                ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+                ChannelConfig.DEFAULT_MAX_MESSAGE_SIZE,
+                ChannelConfig.DEFAULT_MAX_CHUNK_SIZE
+        };
+
+        for (int messageSize : messageSizes) {
+            encodeAndDecodeSymmetric(encoder, decoder, clientChannel, serverChannel,
+                    requestId.getAndIncrement(), messageSize);
+        }
+    }
+
+    private void encodeAndDecodeSymmetric(ChunkEncoder encoder,
+                                          ChunkDecoder decoder,
+                                          ClientSecureChannel clientChannel,
+                                          ServerSecureChannel serverChannel,
+                                          long requestId,
+                                          int messageSize) throws Exception {
+
+        byte[] messageBytes = new byte[messageSize];
+        for (int i = 0; i < messageBytes.length; i++) {
+            messageBytes[i] = (byte) (i + requestId);
+        }
+
+        ByteBuf messageBuffer = BufferUtil.buffer().writeBytes(messageBytes);
+
+        List<ByteBuf> chunkBuffers = encoder.encodeSymmetric(
+                clientChannel,
+                MessageType.SecureMessage,
+                messageBuffer,
+                requestId
+        );
+
+        ByteBuf decodedBuffer = decoder.decodeSymmetric(
+                serverChannel,
+                chunkBuffers
+        );
+
+        ReferenceCountUtil.releaseLater(messageBuffer);
+        ReferenceCountUtil.releaseLater(decodedBuffer);
+
+        messageBuffer.readerIndex(0);
+        assertEquals(decodedBuffer, messageBuffer);
+    }
+
 }
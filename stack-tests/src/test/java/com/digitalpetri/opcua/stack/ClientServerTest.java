@@ -19,16 +19,24 @@ package com.digitalpetri.opcua.stack;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import com.beust.jcommander.internal.Lists;
 import com.digitalpetri.opcua.stack.client.UaTcpStackClient;
 import com.digitalpetri.opcua.stack.client.config.UaTcpStackClientConfig;
 import com.digitalpetri.opcua.stack.core.Stack;
+import com.digitalpetri.opcua.stack.core.StatusCodes;
 import com.digitalpetri.opcua.stack.core.UaException;
+import com.digitalpetri.opcua.stack.core.UaSerializationException;
+import com.digitalpetri.opcua.stack.core.UaServiceFaultException;
+import com.digitalpetri.opcua.stack.core.channel.ChannelConfig;
 import com.digitalpetri.opcua.stack.core.channel.ClientSecureChannel;
 import com.digitalpetri.opcua.stack.core.security.SecurityPolicy;
 import com.digitalpetri.opcua.stack.core.serialization.UaResponseMessage;
+import com.digitalpetri.opcua.stack.core.serialization.binary.LazyArrayResponse;
 import com.digitalpetri.opcua.stack.core.types.builtin.ByteString;
+import com.digitalpetri.opcua.stack.core.types.builtin.DataValue;
 import com.digitalpetri.opcua.stack.core.types.builtin.DateTime;
 import com.digitalpetri.opcua.stack.core.types.builtin.ExpandedNodeId;
 import com.digitalpetri.opcua.stack.core.types.builtin.ExtensionObject;
@@ -39,7 +47,10 @@ import com.digitalpetri.opcua.stack.core.types.builtin.StatusCode;
 import com.digitalpetri.opcua.stack.core.types.builtin.Variant;
 import com.digitalpetri.opcua.stack.core.types.builtin.XmlElement;
 import com.digitalpetri.opcua.stack.core.types.enumerated.MessageSecurityMode;
+import com.digitalpetri.opcua.stack.core.types.enumerated.TimestampsToReturn;
 import com.digitalpetri.opcua.stack.core.types.structured.EndpointDescription;
+import com.digitalpetri.opcua.stack.core.types.structured.ReadRequest;
+import com.digitalpetri.opcua.stack.core.types.structured.ReadResponse;
 import com.digitalpetri.opcua.stack.core.types.structured.ReadValueId;
 import com.digitalpetri.opcua.stack.core.types.structured.RequestHeader;
 import com.digitalpetri.opcua.stack.core.types.structured.ResponseHeader;
@@ -49,6 +60,7 @@ import com.digitalpetri.opcua.stack.core.util.CryptoRestrictions;
 import com.digitalpetri.opcua.stack.server.config.UaTcpStackServerConfig;
 import com.digitalpetri.opcua.stack.server.tcp.SocketServer;
 import com.digitalpetri.opcua.stack.server.tcp.UaTcpStackServer;
+import com.google.common.base.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.annotations.AfterTest;
@@ -62,6 +74,8 @@ import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.
 import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 public class ClientServerTest extends SecurityFixture {
 
@@ -135,6 +149,30 @@ public class ClientServerTest extends SecurityFixture {
             service.setResponse(new TestStackResponse(header, request.getInput()));
         });
 
+        server.addRequestHandler(ReadRequest.class, (service) -> {
+            ReadRequest request = service.getRequest();
+            ReadValueId[] nodesToRead = request.getNodesToRead();
+
+            if (nodesToRead == null || nodesToRead.length == 0) {
+                service.setServiceFault(StatusCodes.Bad_NothingToDo);
+                return;
+            }
+
+            DataValue[] results = new DataValue[nodesToRead.length];
+            for (int i = 0; i < nodesToRead.length; i++) {
+                results[i] = new DataValue(new Variant(nodesToRead[i].getNodeId().getIdentifier().toString()));
+            }
+
+            ResponseHeader header = new ResponseHeader(
+                    DateTime.now(),
+                    request.getRequestHeader().getRequestHandle(),
+                    StatusCode.GOOD,
+                    null, null, null
+            );
+
+            service.setResponse(new ReadResponse(header, results, null));
+        });
+
         server.startup();
 
         endpoints = UaTcpStackClient.getEndpoints("opc.tcp://localhost:12685/test").get();
@@ -372,6 +410,74 @@ public class ClientServerTest extends SecurityFixture {
         logger.info("got response: {}", response1);
     }
 
+    @Test
+    public void testClientServerLazyReadResponse_NoSecurity() throws Exception {
+        UaTcpStackClient client = createClient(endpoints[0]);
+        client.connect().get();
+
+        ReadValueId[] nodesToRead = new ReadValueId[100];
+        for (int i = 0; i < nodesToRead.length; i++) {
+            nodesToRead[i] = new ReadValueId(new NodeId(2, "Tag" + i), uint(13), null, QualifiedName.NULL_VALUE);
+        }
+
+        LazyArrayResponse<DataValue> response = client.<LazyArrayResponse<DataValue>>sendRequestLazily(
+                new ReadRequest(newRequestHeader(1), 0.0, TimestampsToReturn.Neither, nodesToRead)).get();
+
+        try {
+            assertEquals(response.getResults().size(), nodesToRead.length);
+
+            int i = 0;
+            for (DataValue value : response.getResults()) {
+                assertEquals(value.getValue().getValue(), "Tag" + i++);
+            }
+        } finally {
+            response.release();
+        }
+
+        try {
+            client.sendRequestLazily(
+                    new ReadRequest(newRequestHeader(2), 0.0, TimestampsToReturn.Neither, new ReadValueId[0])).get();
+
+            fail("expected a service fault");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof UaServiceFaultException);
+            assertEquals(((UaServiceFaultException) e.getCause()).getStatusCode().getValue(), StatusCodes.Bad_NothingToDo);
+        }
+
+        client.disconnect().get();
+    }
+
+    @Test
+    public void testClientFailsRequestWhenResponseCannotBeDecoded() throws Exception {
+        // The encoder limits a string's length in chars but the decoder limits it in bytes, so the echoed string
+        // is accepted on the way out and rejected on the way back.
+        UaTcpStackClientConfig config = UaTcpStackClientConfig.builder()
+                .setEndpoint(endpoints[0])
+                .setKeyPair(clientKeyPair)
+                .setCertificate(clientCertificate)
+                .setChannelConfig(ChannelConfig.builder().setMaxStringLength(200).build())
+                .build();
+
+        UaTcpStackClient client = new UaTcpStackClient(config);
+        client.connect().get();
+
+        Variant input = new Variant(Strings.repeat("\u6c34", 100));
+
+        try {
+            client.sendRequest(new TestStackRequest(newRequestHeader(1), uint(1), 1, input)).get(5, TimeUnit.SECONDS);
+
+            fail("expected the response to fail decoding");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof UaSerializationException);
+        } finally {
+            client.disconnect();
+        }
+    }
+
+    private RequestHeader newRequestHeader(int requestHandle) {
+        return new RequestHeader(NodeId.NULL_VALUE, DateTime.now(), uint(requestHandle), uint(0), null, uint(60000), null);
+    }
+
     private UaTcpStackClient createClient(EndpointDescription endpoint) throws UaException {
         UaTcpStackClientConfig config = UaTcpStackClientConfig.builder()
                 .setEndpoint(endpoint)